@@ -1,4 +1,6 @@
+import json
 import random
+import struct
 from datetime import datetime, timedelta
 import time
 import uuid
@@ -11,6 +13,27 @@ redis_port = 6379
 target_duration = timedelta(minutes=1)
 batch_size = 1000
 
+# Messages per publish, 1 publishes every message on its own
+envelope_size = 1
+# Envelope format, "json" array or "binary"
+envelope_format = "json"
+
+# Binary envelope header, followed by the 2 byte big-endian length and UTF-8 bytes of every message ID
+BINARY_MAGIC = 0xB1
+BINARY_VERSION = 1
+
+
+def encode(message_ids):
+    if envelope_format == "binary":
+        payload = bytearray([BINARY_MAGIC, BINARY_VERSION])
+        for message_id in message_ids:
+            encoded = message_id.encode("utf-8")
+            payload += struct.pack(">H", len(encoded)) + encoded
+        return bytes(payload)
+    if len(message_ids) == 1:
+        return json.dumps({"message_id": message_ids[0]})
+    return json.dumps([{"message_id": message_id} for message_id in message_ids])
+
 
 def publisher():
     try:
@@ -25,10 +48,10 @@ def publisher():
     try:
         while datetime.now() - start_time < target_duration:
             p = connection.pipeline()
-            for _ in range(batch_size):
-                p.publish("messages:published", f'{{"message_id":"{str(uuid.uuid4())}"}}')
+            for _ in range(0, batch_size, envelope_size):
+                p.publish("messages:published", encode([str(uuid.uuid4()) for _ in range(envelope_size)]))
             p.execute()
-            total_messages += batch_size
+            total_messages += len(range(0, batch_size, envelope_size)) * envelope_size
             time.sleep(random.uniform(0.1, 0.5))
     except Exception as e:
         print(f"Error: {e}")
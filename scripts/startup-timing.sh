@@ -0,0 +1,63 @@
+#!/usr/bin/env bash
+# Compares time from process start until the consumer is registered in Redis
+# for the plain JVM, AOT + CDS and native image builds.
+#
+# Build the variants first (a running Redis server is required by the CDS training run):
+#   mvn -Pcds clean package    -> target/consumer-0.0.1-SNAPSHOT.jar, target/cds/ with application.jsa
+#   mvn -Pnative native:compile -> target/consumer
+#
+# Usage: scripts/startup-timing.sh [runs] [extra application arguments...]
+set -euo pipefail
+
+RUNS=${1:-5}
+shift || true
+APP_ARGS=("$@")
+
+cd "$(dirname "$0")/.."
+
+JAR=target/consumer-0.0.1-SNAPSHOT.jar
+CDS_DIR=target/cds
+NATIVE=target/consumer
+
+# Starts the given command, waits for the registration log line and stops the process.
+measure() {
+  local log
+  log=$(mktemp)
+  "$@" "${APP_ARGS[@]}" > "$log" 2>&1 &
+  local pid=$!
+  for _ in $(seq 1 600); do
+    if grep -q "Registered .* ms after process start" "$log"; then
+      break
+    fi
+    sleep 0.1
+  done
+  kill "$pid" 2>/dev/null || true
+  wait "$pid" 2>/dev/null || true
+  grep -o "Registered [0-9]* ms after process start" "$log" | grep -o "[0-9]*" || echo "n/a"
+  rm -f "$log"
+}
+
+run_variant() {
+  local name=$1
+  shift
+  local results=()
+  for _ in $(seq 1 "$RUNS"); do
+    results+=("$(measure "$@")")
+  done
+  printf "%-10s %s\n" "$name" "${results[*]}"
+}
+
+printf "%-10s %s\n" "variant" "startup-to-registered (ms)"
+
+if [ -f "$JAR" ]; then
+  run_variant "jvm" java -jar "$JAR"
+fi
+
+if [ -f "$CDS_DIR/application.jsa" ]; then
+  run_variant "aot+cds" java -XX:SharedArchiveFile="$CDS_DIR/application.jsa" -Dspring.aot.enabled=true \
+    -jar "$CDS_DIR/consumer-0.0.1-SNAPSHOT.jar"
+fi
+
+if [ -x "$NATIVE" ]; then
+  run_variant "native" "$NATIVE"
+fi
@@ -10,6 +10,9 @@ import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
+
 @Component
 public class AppInitializer {
 
@@ -31,12 +34,10 @@ public class AppInitializer {
     @Autowired
     HeartbeatService heartbeatService;
 
-    @Autowired
-    HashSlotManager hashSlotManager;
-
     @EventListener(ApplicationReadyEvent.class)
-    public void onStartup() {
+    public void onStartup(ApplicationReadyEvent event) {
         registerConsumer();
+        logStartupTime(event);
     }
 
     @EventListener(ContextClosedEvent.class)
@@ -78,14 +79,31 @@ public class AppInitializer {
         //to make sure other nodes does not remove it from active consumers list.
         heartbeatService.sendHeartbeat();
 
-        // Register the consumer as active
-        redisCommands.lpush("consumer:ids", consumer.getConsumerId());
-        logger.info("{} - Registered", consumer.getConsumerId());
+        // Register the logical consumers as active
+        for (String consumerId : consumer.getConsumerIds()) {
+            redisCommands.lpush("consumer:ids", consumerId);
+            logger.info("{} - Registered", consumerId);
+        }
+    }
+
+    /**
+     * Logs time from process start until the consumer was registered as active.
+     * Used to compare startup of plain JVM, AOT/CDS and native image builds.
+     */
+    private void logStartupTime(ApplicationReadyEvent event) {
+        long readyMillis = event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : -1;
+        ProcessHandle.current().info().startInstant().ifPresentOrElse(
+                start -> logger.info("{} - Registered {} ms after process start (application ready in {} ms)",
+                        consumer.getConsumerId(), Duration.between(start, Instant.now()).toMillis(), readyMillis),
+                () -> logger.info("{} - Registered (application ready in {} ms)",
+                        consumer.getConsumerId(), readyMillis));
     }
 
     private void unregisterConsumer() {
-        redisCommands.lrem("consumer:ids", 1, consumer.getConsumerId());
-        logger.info("{} - Deregistered", consumer.getConsumerId());
+        for (String consumerId : consumer.getConsumerIds()) {
+            redisCommands.lrem("consumer:ids", 1, consumerId);
+            logger.info("{} - Deregistered", consumerId);
+        }
     }
 
 }
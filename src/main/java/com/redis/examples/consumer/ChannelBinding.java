@@ -0,0 +1,65 @@
+package com.redis.examples.consumer;
+
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Everything a subscribed channel owns: its topic, slot map, message processor, output stream and executor.
+ * <p>
+ * Messages of a channel are processed on the channel's own executor, so a busy channel cannot starve the others.
+ */
+public class ChannelBinding {
+
+    // Lease value of messages moved to the dead-letter stream, never equal to a consumer ID
+    public static final String LEASE_DEAD_LETTERED = "dead-lettered";
+
+    private final String name;
+    private final Topic topic;
+    private final HashSlotManager slotManager;
+    private final MessageProcessor messageProcessor;
+    private final String outputStream;
+    private final ThreadPoolTaskExecutor executor;
+
+    public ChannelBinding(String name, Topic topic, HashSlotManager slotManager, MessageProcessor messageProcessor,
+                          String outputStream, ThreadPoolTaskExecutor executor) {
+        this.name = name;
+        this.topic = topic;
+        this.slotManager = slotManager;
+        this.messageProcessor = messageProcessor;
+        this.outputStream = outputStream;
+        this.executor = executor;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the key of the lease of a message received on this channel.
+     * <p>
+     * Message IDs are only unique within a channel, so the key is scoped by the channel name.
+     */
+    public String getLockKey(String messageId) {
+        return "lock:" + name + ":" + messageId;
+    }
+
+    public Topic getTopic() {
+        return topic;
+    }
+
+    public HashSlotManager getSlotManager() {
+        return slotManager;
+    }
+
+    public MessageProcessor getMessageProcessor() {
+        return messageProcessor;
+    }
+
+    public String getOutputStream() {
+        return outputStream;
+    }
+
+    public ThreadPoolTaskExecutor getExecutor() {
+        return executor;
+    }
+}
@@ -0,0 +1,124 @@
+package com.redis.examples.consumer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Channels or channel patterns the consumer subscribes to, configured as {@code consumer.channels[n].*}.
+ * <p>
+ * When no channel is configured the consumer subscribes to {@code spring.redis.channel} only.
+ */
+@Component
+@ConfigurationProperties(prefix = "consumer")
+public class ChannelProperties {
+
+    private List<Channel> channels = new ArrayList<>();
+
+    public List<Channel> getChannels() {
+        return channels;
+    }
+
+    public void setChannels(List<Channel> channels) {
+        this.channels = channels;
+    }
+
+    public static class Channel {
+        // Channel name, or pattern when {@code pattern} is set
+        private String name;
+        private boolean pattern;
+        // Stream receiving processed messages
+        private String outputStream = "messages:processed";
+        // Name of the MessageProcessor bean processing messages of this channel
+        private String processor = "messageProcessor";
+        // Number of threads processing messages of this channel
+        private int executorThreads = 10;
+        // Number of messages waiting for an executor thread, further messages are dropped and counted
+        private int executorQueueCapacity = 10000;
+        // Slot map settings, default to hashslot.slots.total, hashslot.replica.count and hashslot.replica.mode
+        private Integer slotsTotal;
+        private Integer replicaCount;
+        private HashSlotManager.ReplicaMode replicaMode;
+
+        public Channel() {
+        }
+
+        public Channel(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public boolean isPattern() {
+            return pattern;
+        }
+
+        public void setPattern(boolean pattern) {
+            this.pattern = pattern;
+        }
+
+        public String getOutputStream() {
+            return outputStream;
+        }
+
+        public void setOutputStream(String outputStream) {
+            this.outputStream = outputStream;
+        }
+
+        public String getProcessor() {
+            return processor;
+        }
+
+        public void setProcessor(String processor) {
+            this.processor = processor;
+        }
+
+        public int getExecutorThreads() {
+            return executorThreads;
+        }
+
+        public void setExecutorThreads(int executorThreads) {
+            this.executorThreads = executorThreads;
+        }
+
+        public int getExecutorQueueCapacity() {
+            return executorQueueCapacity;
+        }
+
+        public void setExecutorQueueCapacity(int executorQueueCapacity) {
+            this.executorQueueCapacity = executorQueueCapacity;
+        }
+
+        public Integer getSlotsTotal() {
+            return slotsTotal;
+        }
+
+        public void setSlotsTotal(Integer slotsTotal) {
+            this.slotsTotal = slotsTotal;
+        }
+
+        public Integer getReplicaCount() {
+            return replicaCount;
+        }
+
+        public void setReplicaCount(Integer replicaCount) {
+            this.replicaCount = replicaCount;
+        }
+
+        public HashSlotManager.ReplicaMode getReplicaMode() {
+            return replicaMode;
+        }
+
+        public void setReplicaMode(HashSlotManager.ReplicaMode replicaMode) {
+            this.replicaMode = replicaMode;
+        }
+    }
+}
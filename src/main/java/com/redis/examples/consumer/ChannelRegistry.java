@@ -0,0 +1,98 @@
+package com.redis.examples.consumer;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Creates a {@link ChannelBinding} for every configured channel and keeps their slot maps in sync with active consumers.
+ */
+@Component
+public class ChannelRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(ChannelRegistry.class);
+
+    private final Map<String, ChannelBinding> bindings = new LinkedHashMap<>();
+
+    @Autowired
+    public ChannelRegistry(ChannelProperties channelProperties,
+                           ApplicationContext applicationContext,
+                           @Value("${spring.redis.channel:messages:published}") String defaultChannel,
+                           @Value("${hashslot.slots.total}") int totalSlots,
+                           @Value("${hashslot.replica.count}") int replicaCount,
+                           @Value("${hashslot.replica.mode:active}") String replicaMode) {
+        List<ChannelProperties.Channel> channels = channelProperties.getChannels();
+        if (channels.isEmpty()) {
+            channels = List.of(new ChannelProperties.Channel(defaultChannel));
+        }
+
+        for (ChannelProperties.Channel channel : channels) {
+            Topic topic = channel.isPattern() ? PatternTopic.of(channel.getName()) : ChannelTopic.of(channel.getName());
+
+            HashSlotManager slotManager = new HashSlotManager(
+                    channel.getSlotsTotal() != null ? channel.getSlotsTotal() : totalSlots,
+                    channel.getReplicaCount() != null ? channel.getReplicaCount() : replicaCount,
+                    channel.getReplicaMode() != null ? channel.getReplicaMode()
+                            : HashSlotManager.ReplicaMode.valueOf(replicaMode.toUpperCase(Locale.ROOT)));
+
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setCorePoolSize(channel.getExecutorThreads());
+            executor.setMaxPoolSize(channel.getExecutorThreads());
+            // Bounded queue, messages are dropped when it is full, see RedisConsumerService#dispatch
+            executor.setQueueCapacity(channel.getExecutorQueueCapacity());
+            executor.setThreadNamePrefix("channel-" + channel.getName() + "-");
+            executor.initialize();
+
+            bindings.put(channel.getName(), new ChannelBinding(channel.getName(), topic, slotManager,
+                    applicationContext.getBean(channel.getProcessor(), MessageProcessor.class),
+                    channel.getOutputStream(), executor));
+            logger.info("Bound {} {} to stream {} with {} threads", channel.isPattern() ? "pattern" : "channel",
+                    channel.getName(), channel.getOutputStream(), channel.getExecutorThreads());
+        }
+    }
+
+    public List<ChannelBinding> getBindings() {
+        return Collections.unmodifiableList(new ArrayList<>(bindings.values()));
+    }
+
+    /**
+     * Returns the binding of the given channel or pattern, {@code null} when the channel is not bound by this consumer.
+     */
+    public ChannelBinding getBinding(String channel) {
+        return bindings.get(channel);
+    }
+
+    /**
+     * Returns the first configured binding.
+     */
+    public ChannelBinding getDefaultBinding() {
+        return bindings.values().iterator().next();
+    }
+
+    @EventListener(ActiveConsumersChangedEvent.class)
+    public void activeConsumersChanged(ActiveConsumersChangedEvent e) {
+        for (ChannelBinding binding : bindings.values()) {
+            binding.getSlotManager().updateSlotMap(e.getNewConsumerIds());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        bindings.values().forEach(binding -> binding.getExecutor().shutdown());
+    }
+}
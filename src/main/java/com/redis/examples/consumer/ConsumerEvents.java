@@ -0,0 +1,132 @@
+package com.redis.examples.consumer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events of the message pipeline.
+ * <p>
+ * An event is allocated and timed with {@code begin()}/{@code end()} for every message, its fields are only filled in
+ * and committed when {@code shouldCommit()} is true. With JFR stopped or the event disabled the timing calls do
+ * nothing and the cost left is the allocation. Stack traces are not recorded.
+ */
+public final class ConsumerEvents {
+
+    private static final String CATEGORY = "Redis Consumer";
+
+    private ConsumerEvents() {
+    }
+
+    @Name("com.redis.examples.consumer.MessageReceived")
+    @Label("Message Received")
+    @Description("Pub/Sub message or message envelope received and decoded")
+    @Category({CATEGORY, "Pipeline"})
+    @StackTrace(false)
+    public static class MessageReceived extends Event {
+        @Label("Channel")
+        public String channel;
+        @Label("Slot")
+        @Description("Slot of the message, -1 for envelopes")
+        public int slot;
+        @Label("Message ID")
+        @Description("ID of the message, not set for envelopes")
+        public String messageId;
+        @Label("Messages")
+        public int messages;
+        @Label("Payload Size")
+        public int payloadSize;
+    }
+
+    @Name("com.redis.examples.consumer.SlotDecision")
+    @Label("Slot Decision")
+    @Description("Whether the slot of a message is served by this consumer")
+    @Category({CATEGORY, "Pipeline"})
+    @StackTrace(false)
+    public static class SlotDecision extends Event {
+        @Label("Channel")
+        public String channel;
+        @Label("Slot")
+        public int slot;
+        @Label("Owned")
+        public boolean owned;
+        @Label("Replica Rank")
+        @Description("Position among the slot replicas, 0 for the primary, -1 when not owned")
+        public int replicaRank;
+    }
+
+    @Name("com.redis.examples.consumer.LeaseAttempt")
+    @Label("Lease Attempt")
+    @Description("Attempt to acquire the processing lease of a message")
+    @Category({CATEGORY, "Pipeline"})
+    @StackTrace(false)
+    public static class LeaseAttempt extends Event {
+        @Label("Channel")
+        public String channel;
+        @Label("Slot")
+        public int slot;
+        @Label("Message ID")
+        public String messageId;
+        @Label("Acquired")
+        public boolean acquired;
+        @Label("Retry")
+        public int retry;
+        @Label("Takeover")
+        @Description("Lease attempted by a standby replica on behalf of the slot primary")
+        public boolean takeover;
+    }
+
+    @Name("com.redis.examples.consumer.MessageProcessed")
+    @Label("Message Processed")
+    @Description("Message processed by the MessageProcessor of its channel")
+    @Category({CATEGORY, "Pipeline"})
+    @StackTrace(false)
+    public static class MessageProcessed extends Event {
+        @Label("Channel")
+        public String channel;
+        @Label("Slot")
+        public int slot;
+        @Label("Message ID")
+        public String messageId;
+        @Label("Retry")
+        public int retry;
+        @Label("Succeeded")
+        public boolean succeeded;
+    }
+
+    @Name("com.redis.examples.consumer.StreamAppend")
+    @Label("Stream Append")
+    @Description("Processed message appended to the output stream")
+    @Category({CATEGORY, "Pipeline"})
+    @StackTrace(false)
+    public static class StreamAppend extends Event {
+        @Label("Channel")
+        public String channel;
+        @Label("Slot")
+        public int slot;
+        @Label("Stream")
+        public String stream;
+    }
+
+    @Name("com.redis.examples.consumer.Rebalance")
+    @Label("Rebalance")
+    @Description("Slot map rebuilt after active consumers changed")
+    @Category({CATEGORY, "Slots"})
+    @StackTrace(false)
+    public static class Rebalance extends Event {
+        @Label("Consumers")
+        public int consumers;
+        @Label("Total Slots")
+        public int totalSlots;
+        @Label("Replica Count")
+        public int replicaCount;
+        @Label("Moved Slots")
+        public int movedSlots;
+        @Label("Moved Primaries")
+        @Description("Slots whose first replica changed, including slots keeping the same replicas in another order")
+        public int movedPrimaries;
+    }
+}
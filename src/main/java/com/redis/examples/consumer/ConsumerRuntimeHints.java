@@ -0,0 +1,39 @@
+package com.redis.examples.consumer;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Runtime hints required by AOT processed and native image builds.
+ * <p>
+ * {@link Message} is bound by Jackson and by the Redis Stream object mapper using reflection,
+ * {@link RetryEntry} by Jackson when queued in Redis.
+ * {@link RedisTimeSeriesCommands} is implemented by Lettuce as a JDK proxy whose command methods are
+ * resolved reflectively from their {@code @Command} annotations.
+ * Lua scripts are loaded from the classpath. {@link RedisRetryScheduler} is created by a {@code @Bean} method returning
+ * {@link RetryScheduler}, its {@code @Scheduled} poll method is found reflectively at runtime.
+ */
+public class ConsumerRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection().registerType(Message.class,
+                MemberCategory.DECLARED_FIELDS,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerType(RetryEntry.class,
+                MemberCategory.DECLARED_FIELDS,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        hints.reflection().registerType(RedisTimeSeriesCommands.class,
+                MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.proxies().registerJdkProxy(RedisTimeSeriesCommands.class);
+
+        hints.resources().registerPattern("scripts/*.lua");
+
+        hints.reflection().registerType(RedisRetryScheduler.class,
+                MemberCategory.INVOKE_PUBLIC_METHODS);
+    }
+}
@@ -4,10 +4,6 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.event.EventListener;
-import org.springframework.stereotype.Service;
 
 import java.util.*;
 
@@ -18,13 +14,25 @@ import java.util.*;
  * Consumers serving the same slot use explicit locking based on the message ID to ensure each message is processed only once.
  * This guarantees that a message will be processed by only one consumer while allowing horizontal scaling.
  * Consequently, there will be exactly {@code replicaCount} consumers attempting to acquire a lease for processing a given message.
+ * <p>
+ * Replicas of a slot are ordered, the first one being the slot primary. Primaries are spread evenly over the consumers.
+ * In {@link ReplicaMode#STANDBY} mode only the primary attempts the lease, see {@link StandbyTakeoverService}.
+ * <p>
+ * Every subscribed channel owns its own slot map, see {@link ChannelRegistry}.
  */
-@Service
 public class HashSlotManager {
     private static final Logger logger = LoggerFactory.getLogger(HashSlotManager.class);
 
-    @Autowired
-    ObjectMapper objectMapper;
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    public enum ReplicaMode {
+        // Every replica of a slot attempts the lease
+        ACTIVE,
+        // Only the primary attempts the lease, standby replicas take over when it fails to
+        STANDBY
+    }
+
+    private final ReplicaMode replicaMode;
 
     private static class SlotMap {
         private final int totalSlots;
@@ -53,24 +61,37 @@ public class HashSlotManager {
             int slot = 0;
             Iterator<String> subscriberIterator = activeSubscribers.iterator();
 
+            // Round robin assignment repeats every period slots, rotating the replicas of each period by one
+            // makes every consumer primary of the same number of slots
+            int rotations = gcd(activeSubscribers.size(), replicaCount);
+            int period = Math.max(1, activeSubscribers.size() / Math.max(1, rotations));
+
             // If there is at least one active subscriber
             if (subscriberIterator.hasNext()) {
                 while (slot < totalSlots) {
-                    Set<String> currentSubscribers = new HashSet<>();
+                    List<String> currentSubscribers = new ArrayList<>();
                     // If there is at least one active subscriber
                     if (!activeSubscribers.isEmpty()) {
                         for (int i = 0; i < replicaCount; i++) {
                             if (!subscriberIterator.hasNext()) {
                                 subscriberIterator = activeSubscribers.iterator(); // Wrap around if we reach end of subscribers set
                             }
-                            currentSubscribers.add(subscriberIterator.next());
+                            String subscriber = subscriberIterator.next();
+                            if (!currentSubscribers.contains(subscriber)) {
+                                currentSubscribers.add(subscriber);
+                            }
                         }
                     }
-                    slotToSubscribersMap.put(slot++, currentSubscribers);
+                    Collections.rotate(currentSubscribers, -((slot / period) % rotations));
+                    slotToSubscribersMap.put(slot++, new LinkedHashSet<>(currentSubscribers));
                 }
             }
         }
 
+        private static int gcd(int a, int b) {
+            return b == 0 ? a : gcd(b, a % b);
+        }
+
         public Set<String> getSubscribers(String key) {
             int slot = getSlot(key);
             Set<String> subscribers = slotToSubscribersMap.get(slot);
@@ -86,39 +107,134 @@ public class HashSlotManager {
             return subscribers != null && subscribers.contains(subscriberId);
         }
 
+        /**
+         * @return position of the subscriber in the replicas of the key slot, {@code 0} for the primary
+         * and {@code -1} when the slot is not served by the subscriber
+         */
+        public int getReplicaRank(String key, String subscriberId) {
+            Set<String> subscribers = slotToSubscribersMap.get(getSlot(key));
+            if (subscribers == null) {
+                return -1;
+            }
+            int rank = 0;
+            for (String subscriber : subscribers) {
+                if (subscriber.equals(subscriberId)) {
+                    return rank;
+                }
+                rank++;
+            }
+            return -1;
+        }
+
         private int getSlot(String key) {
             return Math.abs(key.hashCode()) % totalSlots;
         }
     }
 
-    private SlotMap currentSlotMap;
+    private volatile SlotMap currentSlotMap;
+
+    public HashSlotManager(int totalSlots, int replicaCount) {
+        this(totalSlots, replicaCount, ReplicaMode.ACTIVE);
+    }
 
-    @Autowired
-    public HashSlotManager(@Value("${hashslot.slots.total}") int totalSlots, @Value("${hashslot.replica.count}") int replicaCount) {
+    public HashSlotManager(int totalSlots, int replicaCount, ReplicaMode replicaMode) {
+        this.replicaMode = replicaMode;
         currentSlotMap = new SlotMap(totalSlots, replicaCount, new TreeSet<>());
     }
 
+    public ReplicaMode getReplicaMode() {
+        return replicaMode;
+    }
+
     public boolean isProcessedBy(String key, String subscriberId) {
         return currentSlotMap.isProcessedBy(key, subscriberId);
     }
 
+    public int getSlot(String key) {
+        return currentSlotMap.getSlot(key);
+    }
+
+    /**
+     * @return position of the subscriber in the replicas serving the key, {@code 0} for the primary
+     * and {@code -1} when the key is not served by the subscriber
+     */
+    public int getReplicaRank(String key, String subscriberId) {
+        return currentSlotMap.getReplicaRank(key, subscriberId);
+    }
+
+    /**
+     * @return replicas serving the key, the primary first
+     */
+    public List<String> getReplicas(String key) {
+        return new ArrayList<>(currentSlotMap.getSubscribers(key));
+    }
+
+    public SortedSet<String> getActiveSubscribers() {
+        return currentSlotMap.getActiveSubscribers();
+    }
+
+    public Map<Integer, Set<String>> getSlotAssignments() {
+        return Collections.unmodifiableMap(currentSlotMap.getSlotToSubscribersMap());
+    }
+
     public void updateSlotMap(List<String> subscribers) {
         SortedSet<String> updated = new TreeSet<>(subscribers);
         if (currentSlotMap.getActiveSubscribers().equals(updated)) {
             return;
         }
 
-        this.currentSlotMap = new SlotMap(currentSlotMap.totalSlots, currentSlotMap.replicaCount, updated);
+        ConsumerEvents.Rebalance event = new ConsumerEvents.Rebalance();
+        event.begin();
+
+        SlotMap previous = currentSlotMap;
+        this.currentSlotMap = new SlotMap(previous.totalSlots, previous.replicaCount, updated);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.consumers = updated.size();
+            event.totalSlots = previous.totalSlots;
+            event.replicaCount = previous.replicaCount;
+            event.movedSlots = countMovedSlots(previous, currentSlotMap);
+            event.movedPrimaries = countMovedPrimaries(previous, currentSlotMap);
+            event.commit();
+        }
 
         dumpSlotMap();
     }
 
-    @EventListener(ActiveConsumersChangedEvent.class)
-    public void activeConsumersChanged(ActiveConsumersChangedEvent e) {
-        updateSlotMap(e.getNewConsumerIds());
+    private static int countMovedSlots(SlotMap previous, SlotMap current) {
+        int moved = 0;
+        for (int slot = 0; slot < current.totalSlots; slot++) {
+            if (!Objects.equals(previous.getSlotToSubscribersMap().get(slot), current.getSlotToSubscribersMap().get(slot))) {
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Counts slots whose first replica changed, unlike {@link #countMovedSlots} including slots keeping their
+     * replicas in a different order, which moves leases to another consumer in standby replica mode.
+     */
+    private static int countMovedPrimaries(SlotMap previous, SlotMap current) {
+        int moved = 0;
+        for (int slot = 0; slot < current.totalSlots; slot++) {
+            if (!Objects.equals(primary(previous.getSlotToSubscribersMap().get(slot)),
+                    primary(current.getSlotToSubscribersMap().get(slot)))) {
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    private static String primary(Set<String> replicas) {
+        return replicas == null || replicas.isEmpty() ? null : replicas.iterator().next();
     }
 
     private void dumpSlotMap() {
+        if (!logger.isDebugEnabled()) {
+            return;
+        }
         try {
             logger.debug(objectMapper.writer().writeValueAsString(currentSlotMap.getActiveSubscribers()));
             logger.debug(objectMapper.writer().writeValueAsString(currentSlotMap.getSlotToSubscribersMap()));
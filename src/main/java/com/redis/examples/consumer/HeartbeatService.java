@@ -47,17 +47,18 @@ public class HeartbeatService {
      * Sends a heartbeat to the Redis server at a fixed rate specified by the {@code heartbeat.interval} property.
      * This method is scheduled to run at regular intervals to update the heartbeat timestamp for the current consumer.
      *
-     * The heartbeat key is constructed using a prefix and the consumer ID obtained from {@code redisService}.
+     * A heartbeat key is constructed using a prefix and each logical consumer ID obtained from {@code redisService}.
      * The current timestamp is recorded, and the key is set in Redis with a time-to-live (TTL) duration calculated
      * based on the heartbeat interval and the allowed number of missed heartbeats.
      */
     @Scheduled(fixedRateString = "${heartbeat.interval}")
     public void sendHeartbeat() {
-        String heartbeatKey = HEARTBEAT_PREFIX + redisService.getConsumerId();
         String timestamp = Instant.now().toString();
         Duration ttl = Duration.ofMillis(heartbeatInterval * allowedMissedHeartbeats);
-        redisTemplate.opsForValue().set(heartbeatKey, timestamp, ttl);
-        logger.debug("Heartbeat for {} updated at {} with TTL {}.", redisService.getConsumerId(), timestamp, ttl);
+        for (String consumerId : redisService.getConsumerIds()) {
+            redisTemplate.opsForValue().set(getHeartbeatKey(consumerId), timestamp, ttl);
+            logger.debug("Heartbeat for {} updated at {} with TTL {}.", consumerId, timestamp, ttl);
+        }
     }
 
     /**
@@ -102,7 +103,7 @@ public class HeartbeatService {
 
         if (consumerIds != null) {
             for (String appId : consumerIds) {
-                String heartbeatKey = HEARTBEAT_PREFIX + appId;
+                String heartbeatKey = getHeartbeatKey(appId);
                 Boolean keyExists = redisTemplate.hasKey(heartbeatKey);
 
                 if (keyExists != null && !keyExists) {
@@ -114,6 +115,13 @@ public class HeartbeatService {
         return inactiveConsumers;
     }
 
+    /**
+     * @return key holding the heartbeat of the given consumer, missing once the consumer stopped sending heartbeats
+     */
+    static String getHeartbeatKey(String consumerId) {
+        return HEARTBEAT_PREFIX + consumerId;
+    }
+
     /**
      * Retrieves the current list of active consumer IDs from Redis.
      * The list is sorted to ensure consistent comparison.
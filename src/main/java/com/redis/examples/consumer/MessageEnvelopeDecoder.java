@@ -0,0 +1,96 @@
+package com.redis.examples.consumer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Decodes Pub/Sub payloads carrying one or many messages.
+ * <p>
+ * Supported formats, detected from the first byte of the payload:
+ * <ul>
+ *     <li>JSON object - a single message, {@code {"message_id": "..."}}</li>
+ *     <li>JSON array - envelope of messages, {@code [{"message_id": "..."}, ...]}</li>
+ *     <li>binary - envelope of message IDs, {@link #BINARY_MAGIC} and {@link #BINARY_VERSION} followed by
+ *     a 2 byte big-endian length and the UTF-8 bytes of every message ID</li>
+ * </ul>
+ * Envelopes are decoded in a streaming way, messages are handed over one by one without materializing the envelope.
+ */
+@Component
+public class MessageEnvelopeDecoder {
+
+    public static final byte BINARY_MAGIC = (byte) 0xB1;
+    public static final byte BINARY_VERSION = 1;
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader messageReader;
+
+    @Autowired
+    public MessageEnvelopeDecoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.messageReader = objectMapper.readerFor(Message.class);
+    }
+
+    /**
+     * Decodes the payload and passes every message to the sink.
+     *
+     * @return number of decoded messages
+     * @throws IOException when the payload is malformed, messages decoded so far have been passed to the sink
+     */
+    public int decode(byte[] payload, Consumer<Message> sink) throws IOException {
+        if (payload.length > 0 && payload[0] == BINARY_MAGIC) {
+            return decodeBinary(payload, sink);
+        }
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(payload)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                throw new IOException("Empty message");
+            }
+            if (token != JsonToken.START_ARRAY) {
+                sink.accept(messageReader.readValue(parser));
+                return 1;
+            }
+
+            int count = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                sink.accept(messageReader.readValue(parser));
+                count++;
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new IOException("Unexpected token " + parser.currentToken() + " in message envelope");
+            }
+            return count;
+        }
+    }
+
+    private int decodeBinary(byte[] payload, Consumer<Message> sink) throws IOException {
+        if (payload.length < 2 || payload[1] != BINARY_VERSION) {
+            throw new IOException("Unsupported binary envelope version");
+        }
+
+        int count = 0;
+        int position = 2;
+        while (position < payload.length) {
+            if (position + 2 > payload.length) {
+                throw new IOException("Truncated binary envelope at offset " + position);
+            }
+            int length = ((payload[position] & 0xFF) << 8) | (payload[position + 1] & 0xFF);
+            position += 2;
+            if (position + length > payload.length) {
+                throw new IOException("Truncated binary envelope at offset " + position);
+            }
+            sink.accept(new Message(new String(payload, position, length, StandardCharsets.UTF_8)));
+            position += length;
+            count++;
+        }
+        return count;
+    }
+}
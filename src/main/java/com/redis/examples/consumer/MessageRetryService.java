@@ -0,0 +1,167 @@
+package com.redis.examples.consumer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Handles messages which failed processing.
+ * <p>
+ * Failed messages are retried with exponential backoff using the configured {@link RetryScheduler}.
+ * While a retry is pending the message lease is shortened to the backoff delay, so the lease does not block the retry
+ * for the full lease period. Messages which exhausted all retries are appended to the dead-letter stream
+ * and their lease is replaced by {@link ChannelBinding#LEASE_DEAD_LETTERED}, so no replica processes them again.
+ */
+@Service
+public class MessageRetryService {
+    private static final Logger logger = LoggerFactory.getLogger(MessageRetryService.class);
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final double backoffMultiplier;
+    private final long maxBackoffMillis;
+
+    @Value("${retry.deadletter.stream}")
+    private String deadLetterStream;
+
+    @Value("${redis.lock.expiration.seconds}")
+    private long lockExpirationSeconds;
+
+    @Autowired
+    private RetryScheduler retryScheduler;
+
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter retriesScheduled;
+    private Counter retriesSucceeded;
+    private Counter deadLettered;
+
+    @Autowired
+    public MessageRetryService(@Value("${retry.max.attempts}") int maxAttempts,
+                               @Value("${retry.backoff.initial.ms}") long initialBackoffMillis,
+                               @Value("${retry.backoff.multiplier}") double backoffMultiplier,
+                               @Value("${retry.backoff.max.ms}") long maxBackoffMillis) {
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.backoffMultiplier = backoffMultiplier;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    @PostConstruct
+    public void init() {
+        retriesScheduled = Counter.builder("messages:retry:scheduled:count")
+                .description("Number of scheduled message retries")
+                .register(meterRegistry);
+        retriesSucceeded = Counter.builder("messages:retry:succeeded:count")
+                .description("Number of messages processed successfully on retry")
+                .register(meterRegistry);
+        deadLettered = Counter.builder("messages:deadletter:count")
+                .description("Number of messages moved to the dead-letter stream")
+                .register(meterRegistry);
+        Gauge.builder("messages:retry:pending", retryScheduler, RetryScheduler::getPending)
+                .description("Number of retries waiting to be executed")
+                .register(meterRegistry);
+    }
+
+    public void setRetryHandler(Consumer<RetryEntry> handler) {
+        retryScheduler.setHandler(handler);
+    }
+
+    /**
+     * Schedules the next retry of a failed message, or moves it to the dead-letter stream when retries are exhausted.
+     *
+     * @param message    failed message
+     * @param channel    name of the channel binding the message was received on
+     * @param lockKey    key of the lease held for the message
+     * @param leaseOwner consumer holding the lease
+     * @param attempt    retry which failed, {@code 0} for the initial attempt
+     * @param error      failure cause
+     */
+    public void onFailure(Message message, String channel, String lockKey, String leaseOwner, int attempt, Exception error) {
+        if (attempt < maxAttempts) {
+            long delay = getBackoffMillis(attempt + 1);
+            // Keep other replicas away until the retry is due
+            redisTemplate.expire(lockKey, Duration.ofMillis(delay));
+            retryScheduler.schedule(new RetryEntry(message, channel, attempt + 1, leaseOwner, error.getMessage()), delay);
+            retriesScheduled.increment();
+            logger.debug("{} - Retry {} of message {} scheduled in {} ms", leaseOwner, attempt + 1, message.getMessageId(), delay);
+        } else {
+            deadLetter(message, leaseOwner, attempt, error);
+            redisTemplate.opsForValue().set(lockKey, ChannelBinding.LEASE_DEAD_LETTERED, lockExpirationSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Hands a due retry of a channel this consumer does not bind back to the scheduler.
+     * <p>
+     * A shared scheduler queues the retry again, so a consumer binding the channel can pick it up.
+     * Otherwise no other consumer would ever see it and the retry is dropped.
+     */
+    public void requeue(RetryEntry entry) {
+        if (retryScheduler.isShared()) {
+            logger.debug("Retry {} of message {} requeued, channel {} is not bound",
+                    entry.getAttempt(), entry.getMessage().getMessageId(), entry.getChannel());
+            retryScheduler.schedule(entry, getBackoffMillis(entry.getAttempt()));
+        } else {
+            logger.warn("Retry {} of message {} dropped, channel {} is not bound",
+                    entry.getAttempt(), entry.getMessage().getMessageId(), entry.getChannel());
+        }
+    }
+
+    public void onRetrySucceeded() {
+        retriesSucceeded.increment();
+    }
+
+    /**
+     * Backoff before the given retry, growing exponentially from {@code retry.backoff.initial.ms}
+     * and capped at {@code retry.backoff.max.ms}.
+     *
+     * @param retry retry number, starting at 1
+     */
+    public long getBackoffMillis(int retry) {
+        double backoff = initialBackoffMillis * Math.pow(backoffMultiplier, retry - 1);
+        return (long) Math.min(backoff, maxBackoffMillis);
+    }
+
+    public double getRetriesScheduled() {
+        return retriesScheduled.count();
+    }
+
+    public double getRetriesSucceeded() {
+        return retriesSucceeded.count();
+    }
+
+    public double getDeadLettered() {
+        return deadLettered.count();
+    }
+
+    private void deadLetter(Message message, String consumerId, int attempts, Exception error) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("message_id", message.getMessageId());
+        fields.put("consumer", consumerId);
+        fields.put("attempts", String.valueOf(attempts + 1));
+        fields.put("error", String.valueOf(error.getMessage()));
+
+        redisTemplate.opsForStream().add(StreamRecords.mapBacked(fields).withStreamKey(deadLetterStream));
+        deadLettered.increment();
+        logger.warn("{} - Message {} moved to {} after {} attempts", consumerId, message.getMessageId(), deadLetterStream, attempts + 1);
+    }
+}
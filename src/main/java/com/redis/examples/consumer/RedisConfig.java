@@ -8,14 +8,13 @@ import io.lettuce.core.dynamic.RedisCommandFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
-import org.springframework.data.redis.listener.adapter.MessageListenerAdapter;
 import org.springframework.data.redis.serializer.GenericToStringSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @Configuration
 public class RedisConfig {
@@ -75,32 +74,25 @@ public class RedisConfig {
         return factory.getCommands(RedisTimeSeriesCommands.class);
     }
 
-    @Bean
-    ChannelTopic channelTopic(@Value("${spring.redis.channel:messages:published}") String pattern) {
-
-        return ChannelTopic.of(pattern);
-    }
-
+    /**
+     * Single subscription for all configured channels.
+     * <p>
+     * Listeners run on the I/O thread of the subscription connection. They only hand messages over to the executor
+     * of their channel binding, so each channel is processed by its own share of threads and the I/O thread never
+     * blocks on Redis commands.
+     */
     @Bean
     RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
-                                                                MessageListenerAdapter listener,
-                                                                ChannelTopic messagesTopic) {
-
-        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
-        taskExecutor.setCorePoolSize(10);
-        taskExecutor.setMaxPoolSize(200);
-        taskExecutor.initialize();
+                                                                ChannelRegistry channelRegistry,
+                                                                RedisConsumerService redisConsumerService) {
 
         RedisMessageListenerContainer container = new RedisMessageListenerContainer();
         container.setConnectionFactory(connectionFactory);
-        container.setTaskExecutor(taskExecutor);
-        container.addMessageListener(listener, messagesTopic);
+        container.setTaskExecutor(new SyncTaskExecutor());
+        for (ChannelBinding binding : channelRegistry.getBindings()) {
+            MessageListener listener = (message, pattern) -> redisConsumerService.dispatch(binding, message.getBody());
+            container.addMessageListener(listener, binding.getTopic());
+        }
         return container;
     }
-
-    @Bean
-    public MessageListenerAdapter messageListenerAdapter(RedisConsumerService redisConsumerService) {
-
-        return new MessageListenerAdapter(redisConsumerService, "onMessage");
-    }
 }
\ No newline at end of file
@@ -11,10 +11,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.connection.stream.ObjectRecord;
 import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -23,7 +33,13 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class RedisConsumerService {
     private static final Logger logger = LoggerFactory.getLogger(RedisConsumerService.class);
 
-    private final String consumerId = "Consumer-" + UUID.randomUUID();
+    private static final RedisScript<Long> TAKE_OVER_LEASE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/take-over-lease.lua"), Long.class);
+
+    // Logical consumers hosted by this process, sharing its subscription
+    private final List<String> consumerIds;
+    // First logical consumer, identifies the process in logs and metrics
+    private final String consumerId;
 
     // Number of successfully processed messages since last reported
     private final AtomicInteger successCount = new AtomicInteger(0);
@@ -35,6 +51,9 @@ public class RedisConsumerService {
     // Total number of errors
     private Counter errorCountTotal;
 
+    // Total number of messages dropped by a full channel executor
+    private Counter rejectedCountTotal;
+
     // Number of messages not in current consumer managed slots.
     private final AtomicInteger skippedCount = new AtomicInteger(0);
 
@@ -44,9 +63,6 @@ public class RedisConsumerService {
     @Value("${metrics.report.period.seconds}")
     private long metricsReportPeriodSeconds;
 
-    @Autowired
-    MessageProcessor messageProcessor;
-
     @Autowired
     private RedisTemplate<String, String> redisTemplate;
 
@@ -63,7 +79,33 @@ public class RedisConsumerService {
     private MeterRegistry meterRegistry;
 
     @Autowired
-    HashSlotManager slotManager;
+    ChannelRegistry channelRegistry;
+
+    @Autowired
+    MessageRetryService retryService;
+
+    @Autowired
+    StandbyTakeoverService standbyService;
+
+    @Autowired
+    MessageEnvelopeDecoder envelopeDecoder;
+
+    @Autowired
+    public RedisConsumerService(@Value("${consumer.logical.count:1}") int logicalCount) {
+        UUID processId = UUID.randomUUID();
+        List<String> ids = new ArrayList<>();
+        if (logicalCount <= 1) {
+            ids.add("Consumer-" + processId);
+        } else {
+            // Index ahead of the process ID interleaves the sorted IDs of several processes,
+            // so the replicas of a slot are spread across processes
+            for (int i = 0; i < logicalCount; i++) {
+                ids.add("Consumer-" + i + "-" + processId);
+            }
+        }
+        consumerIds = Collections.unmodifiableList(ids);
+        consumerId = consumerIds.get(0);
+    }
 
     @PostConstruct
     public void init() {
@@ -73,55 +115,315 @@ public class RedisConsumerService {
         errorCountTotal = Counter.builder("messages:processed:failed:count")
                 .description("Number of messages processed")
                 .register(meterRegistry);
+        rejectedCountTotal = Counter.builder("messages:rejected:count")
+                .description("Number of messages dropped because the executor queue of their channel was full")
+                .register(meterRegistry);
+        retryService.setRetryHandler(this::retry);
+    }
+
+    /**
+     * Hands a message received by the Pub/Sub subscription over to the executor of its channel binding.
+     * <p>
+     * Invoked on the I/O thread of the subscription connection, which must neither block nor process messages.
+     * When the executor queue is full the message is dropped and counted instead.
+     */
+    public void dispatch(ChannelBinding binding, byte[] payload) {
+        try {
+            binding.getExecutor().execute(() -> onMessage(binding, payload));
+        } catch (TaskRejectedException e) {
+            rejectedCountTotal.increment();
+            logger.debug("{} - Executor queue of channel {} is full, message dropped", consumerId, binding.getName());
+        }
+    }
+
+    /**
+     * Processes a message received on the given channel. Messages of channels not bound by this consumer are skipped.
+     */
+    public void onMessage(String message, String channel) {
+        ChannelBinding binding = channelRegistry.getBinding(channel);
+        if (binding == null) {
+            logger.warn("{} - Message skipped, channel {} is not bound", consumerId, channel);
+            return;
+        }
+        onMessage(binding, message.getBytes(StandardCharsets.UTF_8));
     }
 
     /**
-     * Checks if the current message should be processed by this consumer using HashSlotManager.
+     * Checks if the current message should be processed by this consumer using the HashSlotManager of the channel binding.
      *
      * Consumers serving the same slot use explicit locking based on the message ID to ensure each message is processed only once.
      * Consequently, there will be exactly {@code replicaCount} consumers attempting to acquire a lease for processing a given message,
-     * reducing the load on the Redis server.
+     * reducing the load on the Redis server. In standby replica mode only the slot primary attempts the lease right away,
+     * standby replicas hand the message over to {@link StandbyTakeoverService}.
+     * <p>
+     * The message is parsed once for all logical consumers of this process. It is handled by the logical consumer
+     * with the best replica rank, other local replicas of the slot would only contend for the same lease.
+     * <p>
+     * The payload may be an envelope of messages, see {@link MessageEnvelopeDecoder}. Messages of an envelope are
+     * split by slot, the slots served by this process are handled in parallel on the executor of the channel binding.
      */
-    public void onMessage(String message, String channel) {
+    public void onMessage(ChannelBinding binding, byte[] payload) {
 
-        logger.trace("{} - Received message:", consumerId, message);
+        if (logger.isTraceEnabled()) {
+            logger.trace("{} - Received message on {}: {}", consumerId, binding.getName(), new String(payload, StandardCharsets.UTF_8));
+        }
 
+        Map<Integer, List<Runnable>> slotTasks = new LinkedHashMap<>();
         try {
-            Message msg = objectMapper.readValue(message, Message.class);
+            ConsumerEvents.MessageReceived received = new ConsumerEvents.MessageReceived();
+            received.begin();
+            Message[] first = new Message[1];
+            int messages = envelopeDecoder.decode(payload, msg -> {
+                if (first[0] == null) {
+                    first[0] = msg;
+                }
+                route(binding, msg, slotTasks);
+            });
+            received.end();
+            if (received.shouldCommit()) {
+                received.channel = binding.getName();
+                received.slot = messages == 1 ? binding.getSlotManager().getSlot(first[0].getMessageId()) : -1;
+                received.messageId = messages == 1 ? first[0].getMessageId() : null;
+                received.messages = messages;
+                received.payloadSize = payload.length;
+                received.commit();
+            }
+        } catch (Exception e) {
+            // Update the error count
+            incrementErrorCount();
+            logger.error("{} - Error processing message: {}", consumerId, e.getMessage(), e);
+        }
 
+        // Slots of an envelope are independent, handle the last one on the current thread
+        Iterator<List<Runnable>> slots = slotTasks.values().iterator();
+        while (slots.hasNext()) {
+            List<Runnable> tasks = slots.next();
+            if (slots.hasNext()) {
+                try {
+                    binding.getExecutor().execute(() -> tasks.forEach(Runnable::run));
+                } catch (TaskRejectedException e) {
+                    // Executor queue full, the current thread is an executor thread and may process the slot itself
+                    tasks.forEach(Runnable::run);
+                }
+            } else {
+                tasks.forEach(Runnable::run);
+            }
+        }
+    }
+
+    /**
+     * Selects the local logical consumer handling the message, messages of slots not served by this process are skipped.
+     */
+    private void route(ChannelBinding binding, Message msg, Map<Integer, List<Runnable>> slotTasks) {
+        String messageId = msg.getMessageId();
+        HashSlotManager slotManager = binding.getSlotManager();
+
+        ConsumerEvents.SlotDecision decision = new ConsumerEvents.SlotDecision();
+        decision.begin();
+        String owner = null;
+        int rank = -1;
+        for (String id : consumerIds) {
+            int idRank = slotManager.getReplicaRank(messageId, id);
+            if (idRank >= 0 && (rank < 0 || idRank < rank)) {
+                owner = id;
+                rank = idRank;
+            }
+        }
+        decision.end();
+        if (decision.shouldCommit()) {
+            decision.channel = binding.getName();
+            decision.slot = slotManager.getSlot(messageId);
+            decision.owned = rank >= 0;
+            decision.replicaRank = rank;
+            decision.commit();
+        }
+
+        if (rank < 0) {
+            skippedCount.incrementAndGet();
+            return;
+        }
+        String localOwner = owner;
+        int localRank = rank;
+        slotTasks.computeIfAbsent(slotManager.getSlot(messageId), slot -> new ArrayList<>())
+                .add(() -> handle(binding, msg, localOwner, localRank));
+    }
+
+    private void handle(ChannelBinding binding, Message msg, String owner, int rank) {
+        try {
             // Try to acquire the lock
-            String lockKey = "lock:" + msg.getMessageId();
+            String lockKey = binding.getLockKey(msg.getMessageId());
             String messageId = msg.getMessageId();
-            String lockValue = consumerId;
+            HashSlotManager slotManager = binding.getSlotManager();
 
-            if (slotManager.isProcessedBy(messageId, consumerId)) {
+            if (rank > 0 && slotManager.getReplicaMode() == HashSlotManager.ReplicaMode.STANDBY) {
+                // Standby replica, let the primary lease the message
+                String standby = owner;
+                standbyService.watch(binding, msg, lockKey, slotManager.getReplicas(messageId).get(0), rank,
+                        holder -> takeOver(binding, msg, standby, holder));
+            } else {
                 // Try to acquire lease with an expiration time to prevent other notes processing same message
-                boolean leaseAcquired = acquireLock(lockKey, lockValue);
+                ConsumerEvents.LeaseAttempt lease = new ConsumerEvents.LeaseAttempt();
+                lease.begin();
+                boolean leaseAcquired = acquireLock(lockKey, owner);
+                lease.end();
+                if (lease.shouldCommit()) {
+                    lease.channel = binding.getName();
+                    lease.slot = slotManager.getSlot(messageId);
+                    lease.messageId = messageId;
+                    lease.acquired = leaseAcquired;
+                    lease.commit();
+                }
                 if (leaseAcquired) {
-                    // Process the message
-                    Message processed = messageProcessor.process(msg, consumerId);
-                    logger.debug("{} - Processed message: {}", consumerId, objectMapper.writeValueAsString(msg));
-
-                    // Store the processed message in Redis Stream
-                    ObjectRecord<String, Message> record = StreamRecords.newRecord()
-                            .in("messages:processed")
-                            .ofObject(processed);
-                    redisTemplate
-                            .opsForStream()
-                            .add(record);
-
-                    // Update processed messages count
-                    incrementSuccessCount();
+                    processLeased(binding, msg, lockKey, owner, 0);
                 } else {
-                    logger.debug("{} - Message already processed by another consumer: {}", consumerId, messageId);
+                    logger.debug("{} - Message already processed by another consumer: {}", owner, messageId);
                 }
-            } else {
-                skippedCount.incrementAndGet();
             }
         } catch (Exception e) {
             // Update the error count
             incrementErrorCount();
-            logger.error("{} - Error processing message: {}", consumerId, e.getMessage(), e);
+            logger.error("{} - Error processing message: {}", owner, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Attempts the lease of a message the slot primary did not lease or leased and died, as a standby replica of its slot.
+     *
+     * @param holder consumer without heartbeat holding the lease, {@code null} when the lease is free
+     */
+    private void takeOver(ChannelBinding binding, Message msg, String owner, String holder) {
+        String lockKey = binding.getLockKey(msg.getMessageId());
+
+        ConsumerEvents.LeaseAttempt lease = new ConsumerEvents.LeaseAttempt();
+        lease.begin();
+        boolean leaseAcquired = takeOverLock(lockKey, holder, owner);
+        lease.end();
+        if (lease.shouldCommit()) {
+            lease.channel = binding.getName();
+            lease.slot = binding.getSlotManager().getSlot(msg.getMessageId());
+            lease.messageId = msg.getMessageId();
+            lease.acquired = leaseAcquired;
+            lease.takeover = true;
+            lease.commit();
+        }
+
+        if (leaseAcquired) {
+            processLeased(binding, msg, lockKey, owner, 0);
+        } else {
+            logger.debug("{} - Message already processed by another consumer: {}", owner, msg.getMessageId());
+        }
+    }
+
+    /**
+     * Retries a failed message once its backoff elapsed.
+     * <p>
+     * The lease is acquired again, it is considered free also when still held by the consumer that failed the message.
+     * Retries of a logical consumer of this process are executed on its behalf. Retries of channels not bound by
+     * this consumer are handed back to {@link MessageRetryService}.
+     */
+    private void retry(RetryEntry entry) {
+        Message msg = entry.getMessage();
+        ChannelBinding binding = channelRegistry.getBinding(entry.getChannel());
+        if (binding == null) {
+            retryService.requeue(entry);
+            return;
+        }
+        String lockKey = binding.getLockKey(msg.getMessageId());
+        String owner = consumerIds.contains(entry.getLeaseOwner()) ? entry.getLeaseOwner() : consumerId;
+
+        ConsumerEvents.LeaseAttempt lease = new ConsumerEvents.LeaseAttempt();
+        lease.begin();
+        boolean leaseAcquired = takeOverLock(lockKey, entry.getLeaseOwner(), owner);
+        lease.end();
+        if (lease.shouldCommit()) {
+            lease.channel = binding.getName();
+            lease.slot = binding.getSlotManager().getSlot(msg.getMessageId());
+            lease.messageId = msg.getMessageId();
+            lease.acquired = leaseAcquired;
+            lease.retry = entry.getAttempt();
+            lease.commit();
+        }
+
+        if (leaseAcquired) {
+            processLeased(binding, msg, lockKey, owner, entry.getAttempt());
+        } else {
+            logger.debug("{} - Retry {} of message {} skipped, lease held by another consumer", owner, entry.getAttempt(), msg.getMessageId());
+        }
+    }
+
+    /**
+     * Processes a message this consumer holds the lease for. Failures are handed over to {@link MessageRetryService}.
+     *
+     * @param owner   logical consumer holding the lease
+     * @param attempt retry number, {@code 0} for the initial attempt
+     */
+    private void processLeased(ChannelBinding binding, Message msg, String lockKey, String owner, int attempt) {
+        try {
+            // Process the message
+            Message processed = process(binding, msg, owner, attempt);
+            if (logger.isDebugEnabled()) {
+                logger.debug("{} - Processed message: {}", owner, objectMapper.writeValueAsString(msg));
+            }
+
+            // Store the processed message in Redis Stream
+            appendToStream(binding, processed);
+
+            // Update processed messages count
+            incrementSuccessCount();
+            if (attempt > 0) {
+                retryService.onRetrySucceeded();
+            }
+        } catch (Exception e) {
+            // Update the error count
+            incrementErrorCount();
+            logger.error("{} - Error processing message {} (attempt {}): {}", owner, msg.getMessageId(), attempt, e.getMessage(), e);
+            try {
+                retryService.onFailure(msg, binding.getName(), lockKey, owner, attempt, e);
+            } catch (Exception retryError) {
+                // Already counted as error
+                logger.error("{} - Error scheduling retry of message {}: {}", owner, msg.getMessageId(), retryError.getMessage(), retryError);
+            }
+        }
+    }
+
+    private Message process(ChannelBinding binding, Message msg, String owner, int attempt) {
+        ConsumerEvents.MessageProcessed event = new ConsumerEvents.MessageProcessed();
+        event.begin();
+        boolean succeeded = false;
+        try {
+            Message processed = binding.getMessageProcessor().process(msg, owner);
+            succeeded = true;
+            return processed;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.channel = binding.getName();
+                event.slot = binding.getSlotManager().getSlot(msg.getMessageId());
+                event.messageId = msg.getMessageId();
+                event.retry = attempt;
+                event.succeeded = succeeded;
+                event.commit();
+            }
+        }
+    }
+
+    private void appendToStream(ChannelBinding binding, Message processed) {
+        ConsumerEvents.StreamAppend event = new ConsumerEvents.StreamAppend();
+        event.begin();
+
+        ObjectRecord<String, Message> record = StreamRecords.newRecord()
+                .in(binding.getOutputStream())
+                .ofObject(processed);
+        redisTemplate
+                .opsForStream()
+                .add(record);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.channel = binding.getName();
+            event.slot = binding.getSlotManager().getSlot(processed.getMessageId());
+            event.stream = binding.getOutputStream();
+            event.commit();
         }
     }
 
@@ -137,17 +439,33 @@ public class RedisConsumerService {
 
     private boolean acquireLock(String lockKey, String value) {
         // Try to acquire lease with configured lease expiration time
-        Boolean lockAcquired = redisTemplate.opsForValue().setIfAbsent(lockKey, consumerId, lockExpirationSeconds, TimeUnit.SECONDS);
+        Boolean lockAcquired = redisTemplate.opsForValue().setIfAbsent(lockKey, value, lockExpirationSeconds, TimeUnit.SECONDS);
         return Boolean.TRUE.equals(lockAcquired);
     }
 
+    /**
+     * Acquires a lease which is free or still held by the previous owner, i.e. the consumer which failed the message
+     * or a lease holder without heartbeat.
+     */
+    private boolean takeOverLock(String lockKey, String previousOwner, String owner) {
+        if (previousOwner == null) {
+            return acquireLock(lockKey, owner);
+        }
+        // Compare and set atomically, the lease must not be taken from a consumer which acquired it meanwhile
+        Long acquired = redisTemplate.execute(TAKE_OVER_LEASE_SCRIPT, List.of(lockKey),
+                previousOwner, owner, String.valueOf(lockExpirationSeconds));
+        return Long.valueOf(1).equals(acquired);
+    }
+
     @Scheduled(fixedRateString = "${metrics.report.period.seconds}000")
     private void reportMetrics() {
         int processed = successCount.getAndSet(0);
         int errors = errorCount.getAndSet(0);
         int skipped = skippedCount.getAndSet(0);
 
-        logger.info("Messages processed: {}, failed: {}, skipped: {}", processed, errors, skipped);
+        logger.info("Messages processed: {}, failed: {}, skipped: {}, rejected: {}, retries scheduled: {}, dead-lettered: {}, standby takeovers: {}",
+                processed, errors, skipped, rejectedCountTotal.count(), retryService.getRetriesScheduled(),
+                retryService.getDeadLettered(), standbyService.getTakeovers());
 
         tsCmds.tsAdd(getProcessedMessagesTsKey() + ":count", System.currentTimeMillis(), successCountTotal.count());
         tsCmds.tsAdd(getProcessedMessagesTsKey() + ":rate", System.currentTimeMillis(), processed);
@@ -164,8 +482,19 @@ public class RedisConsumerService {
         return "metrics:messages:failed:" + consumerId;
     }
 
+    public double getRejected() {
+        return rejectedCountTotal.count();
+    }
+
     public String getConsumerId() {
         return consumerId;
     }
 
+    /**
+     * @return logical consumers hosted by this process, each registered and owning slots on its own
+     */
+    public List<String> getConsumerIds() {
+        return consumerIds;
+    }
+
 }
@@ -0,0 +1,81 @@
+package com.redis.examples.consumer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps retries in a Redis sorted set scored by the time the retry is due.
+ * <p>
+ * The delay queue is shared by all consumers. Due entries are claimed by removing them from the sorted set,
+ * so each retry is picked up by exactly one consumer, also when the consumer which failed the message is gone.
+ */
+public class RedisRetryScheduler extends RetryScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(RedisRetryScheduler.class);
+
+    // Number of due entries claimed per poll
+    private static final int POLL_BATCH_SIZE = 100;
+
+    private final String queueKey;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    public RedisRetryScheduler(String queueKey, RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper,
+                               int threads) {
+        super(threads);
+        this.queueKey = queueKey;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void schedule(RetryEntry entry, long delayMillis) {
+        try {
+            // Random prefix keeps members unique if the same message is scheduled more than once
+            String member = UUID.randomUUID() + ":" + objectMapper.writeValueAsString(entry);
+            redisTemplate.opsForZSet().add(queueKey, member, System.currentTimeMillis() + delayMillis);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize retry entry", e);
+        }
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    @Override
+    public long getPending() {
+        Long size = redisTemplate.opsForZSet().zCard(queueKey);
+        return size != null ? size : 0;
+    }
+
+    /**
+     * Claims retries which are due and hands them over to the retry executor.
+     */
+    @Scheduled(fixedDelayString = "${retry.poll.interval.ms}")
+    public void pollDueRetries() {
+        Set<String> due = redisTemplate.opsForZSet().rangeByScore(queueKey, 0, System.currentTimeMillis(), 0, POLL_BATCH_SIZE);
+        if (due == null) {
+            return;
+        }
+        for (String member : due) {
+            Long removed = redisTemplate.opsForZSet().remove(queueKey, member);
+            if (removed == null || removed == 0) {
+                // Claimed by another consumer
+                continue;
+            }
+            try {
+                dispatch(objectMapper.readValue(member.substring(member.indexOf(':') + 1), RetryEntry.class));
+            } catch (JsonProcessingException e) {
+                logger.error("Discarding malformed retry entry {}", member, e);
+            }
+        }
+    }
+}
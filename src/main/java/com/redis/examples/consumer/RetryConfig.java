@@ -0,0 +1,33 @@
+package com.redis.examples.consumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Locale;
+
+/**
+ * Creates the {@link RetryScheduler} selected by {@code retry.scheduler}.
+ * <p>
+ * The property is read when the bean is created rather than by a bean condition, which AOT processing would evaluate
+ * at build time. AOT processed and native builds thus honor the scheduler configured at runtime.
+ */
+@Configuration
+public class RetryConfig {
+
+    @Bean
+    public RetryScheduler retryScheduler(@Value("${retry.scheduler:local}") String scheduler,
+                                         @Value("${retry.executor.threads}") int threads,
+                                         @Value("${retry.timer.tick.ms}") long tickMillis,
+                                         @Value("${retry.queue.key}") String queueKey,
+                                         RedisTemplate<String, String> redisTemplate,
+                                         ObjectMapper objectMapper) {
+        return switch (scheduler.toLowerCase(Locale.ROOT)) {
+            case "local" -> new TimerWheelRetryScheduler(tickMillis, threads);
+            case "redis" -> new RedisRetryScheduler(queueKey, redisTemplate, objectMapper, threads);
+            default -> throw new IllegalArgumentException("Unsupported retry.scheduler: " + scheduler);
+        };
+    }
+}
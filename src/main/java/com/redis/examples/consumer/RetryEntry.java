@@ -0,0 +1,78 @@
+package com.redis.examples.consumer;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Failed message waiting for its next processing attempt.
+ */
+public class RetryEntry {
+
+    @JsonProperty("message")
+    private Message message;
+
+    // Channel binding the message was received on
+    @JsonProperty("channel")
+    private String channel;
+
+    // Number of the retry this entry is scheduled for, starting at 1
+    @JsonProperty("attempt")
+    private int attempt;
+
+    // Consumer which held the lease when the previous attempt failed
+    @JsonProperty("lease_owner")
+    private String leaseOwner;
+
+    @JsonProperty("error")
+    private String error;
+
+    public RetryEntry() {
+    }
+
+    public RetryEntry(Message message, String channel, int attempt, String leaseOwner, String error) {
+        this.message = message;
+        this.channel = channel;
+        this.attempt = attempt;
+        this.leaseOwner = leaseOwner;
+        this.error = error;
+    }
+
+    public Message getMessage() {
+        return message;
+    }
+
+    public void setMessage(Message message) {
+        this.message = message;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public int getAttempt() {
+        return attempt;
+    }
+
+    public void setAttempt(int attempt) {
+        this.attempt = attempt;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,69 @@
+package com.redis.examples.consumer;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.function.Consumer;
+
+/**
+ * Delays failed messages until their next attempt is due.
+ * <p>
+ * Waiting retries do not occupy any thread, due retries are handed over to a dedicated executor.
+ */
+public abstract class RetryScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(RetryScheduler.class);
+
+    private final ThreadPoolTaskExecutor executor;
+
+    private volatile Consumer<RetryEntry> handler = entry -> {
+    };
+
+    protected RetryScheduler(int threads) {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("retry-");
+        executor.initialize();
+    }
+
+    /**
+     * Sets the handler invoked once a retry is due.
+     */
+    public void setHandler(Consumer<RetryEntry> handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Schedules the entry to be handed over to the handler after the given delay.
+     */
+    public abstract void schedule(RetryEntry entry, long delayMillis);
+
+    /**
+     * @return {@code true} when scheduled retries may be picked up by other consumers
+     */
+    public boolean isShared() {
+        return false;
+    }
+
+    /**
+     * @return number of retries waiting in this scheduler
+     */
+    public abstract long getPending();
+
+    protected void dispatch(RetryEntry entry) {
+        executor.execute(() -> {
+            try {
+                handler.accept(entry);
+            } catch (Exception e) {
+                logger.error("Error retrying message {}", entry.getMessage().getMessageId(), e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
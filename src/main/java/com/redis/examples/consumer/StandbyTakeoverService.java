@@ -0,0 +1,172 @@
+package com.redis.examples.consumer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.util.HashedWheelTimer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Lets standby replicas of a slot take over messages the slot primary did not lease.
+ * <p>
+ * In {@link HashSlotManager.ReplicaMode#STANDBY} mode a standby replica does not race the primary for the lease.
+ * It waits {@code rank * hashslot.standby.takeover.ms} and then only reads the lease key. The lease is attempted
+ * when the key is still missing, i.e. the primary did not lease the message in time. When the heartbeat key of the
+ * primary is missing the wait is shortened by one period, so the first standby takes over right away.
+ * <p>
+ * A lease held by a consumer without heartbeat is taken over as well, its holder died while processing the message.
+ * A lease held by a live consumer ends the watch, the holder finishes or retries the message.
+ * <p>
+ * Messages leased by the primary thus cost a single lease write regardless of {@code hashslot.replica.count}.
+ */
+@Service
+public class StandbyTakeoverService {
+    private static final Logger logger = LoggerFactory.getLogger(StandbyTakeoverService.class);
+
+    // Takeover delays are multiples of the takeover period, a coarse tick is precise enough
+    private static final long TICK_MILLIS = 10;
+
+    private final long takeoverMillis;
+    private final long heartbeatInterval;
+
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final HashedWheelTimer timer;
+
+    // Consumers known to be alive and until when, avoids reading the heartbeat key for every message
+    private final Map<String, Long> aliveUntil = new ConcurrentHashMap<>();
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private Counter takeovers;
+
+    @Autowired
+    public StandbyTakeoverService(@Value("${hashslot.standby.takeover.ms:1000}") long takeoverMillis,
+                                  @Value("${heartbeat.interval}") long heartbeatInterval) {
+        this.takeoverMillis = takeoverMillis;
+        this.heartbeatInterval = heartbeatInterval;
+        timer = new HashedWheelTimer(r -> {
+            Thread thread = new Thread(r, "standby-timer");
+            thread.setDaemon(true);
+            return thread;
+        }, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @PostConstruct
+    public void init() {
+        takeovers = Counter.builder("messages:standby:takeover:count")
+                .description("Number of lease attempts by standby replicas on behalf of the slot primary")
+                .register(meterRegistry);
+        Gauge.builder("messages:standby:pending", pending, AtomicLong::get)
+                .description("Number of messages watched by standby replicas")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Watches a message of a slot this consumer is a standby replica of.
+     *
+     * @param lockKey  lease key the primary sets when it leases the message
+     * @param primary  ID of the slot primary
+     * @param rank     position of this consumer in the slot replicas, at least {@code 1}
+     * @param takeover attempts the lease and processes the message, invoked on the executor of the channel binding
+     *                 with the lease holder to take the lease from, {@code null} when the lease is free
+     */
+    public void watch(ChannelBinding binding, Message msg, String lockKey, String primary, int rank,
+                      Consumer<String> takeover) {
+        long delay = (isAlive(primary) ? rank : rank - 1) * takeoverMillis;
+        if (delay <= 0) {
+            logger.debug("Primary {} has no heartbeat, taking over message {}", primary, msg.getMessageId());
+            takeOver(takeover, null);
+            return;
+        }
+
+        pending.incrementAndGet();
+        schedule(binding, msg, lockKey, delay, takeover);
+    }
+
+    private void schedule(ChannelBinding binding, Message msg, String lockKey, long delay, Consumer<String> takeover) {
+        timer.newTimeout(timeout -> {
+            try {
+                binding.getExecutor().execute(() -> check(msg, lockKey, delay, takeover));
+            } catch (TaskRejectedException e) {
+                // Channel busy, the timer thread must not check itself as it would delay all other watched messages
+                schedule(binding, msg, lockKey, delay, takeover);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void check(Message msg, String lockKey, long delay, Consumer<String> takeover) {
+        pending.decrementAndGet();
+        try {
+            String holder = redisTemplate.opsForValue().get(lockKey);
+            if (holder == null) {
+                logger.debug("Message {} not leased within {} ms, taking over", msg.getMessageId(), delay);
+                takeOver(takeover, null);
+            } else if (!ChannelBinding.LEASE_DEAD_LETTERED.equals(holder) && !isAlive(holder)) {
+                logger.debug("Lease holder {} of message {} has no heartbeat, taking over", holder, msg.getMessageId());
+                takeOver(takeover, holder);
+            }
+        } catch (Exception e) {
+            logger.error("Error checking lease of message {}", msg.getMessageId(), e);
+        }
+    }
+
+    private void takeOver(Consumer<String> takeover, String holder) {
+        takeovers.increment();
+        takeover.accept(holder);
+    }
+
+    private boolean isAlive(String consumerId) {
+        long now = System.currentTimeMillis();
+        Long until = aliveUntil.get(consumerId);
+        if (until != null && until > now) {
+            return true;
+        }
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(HeartbeatService.getHeartbeatKey(consumerId)))) {
+            aliveUntil.put(consumerId, now + heartbeatInterval);
+            return true;
+        }
+        aliveUntil.remove(consumerId);
+        return false;
+    }
+
+    @EventListener(ActiveConsumersChangedEvent.class)
+    public void activeConsumersChanged(ActiveConsumersChangedEvent e) {
+        aliveUntil.keySet().retainAll(e.getNewConsumerIds());
+    }
+
+    public long getPending() {
+        return pending.get();
+    }
+
+    public double getTakeovers() {
+        return takeovers.count();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        int unprocessed = timer.stop().size();
+        if (unprocessed > 0) {
+            logger.warn("Dropped {} watched standby messages on shutdown", unprocessed);
+        }
+    }
+}
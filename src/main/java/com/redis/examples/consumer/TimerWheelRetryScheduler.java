@@ -0,0 +1,55 @@
+package com.redis.examples.consumer;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps retries in a local hashed timer wheel.
+ * <p>
+ * Retries are executed by the consumer which failed the message. Pending retries are lost when the consumer stops.
+ */
+public class TimerWheelRetryScheduler extends RetryScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(TimerWheelRetryScheduler.class);
+
+    private final HashedWheelTimer timer;
+
+    private final AtomicLong pending = new AtomicLong();
+
+    public TimerWheelRetryScheduler(long tickMillis, int threads) {
+        super(threads);
+        timer = new HashedWheelTimer(r -> {
+            Thread thread = new Thread(r, "retry-timer");
+            thread.setDaemon(true);
+            return thread;
+        }, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void schedule(RetryEntry entry, long delayMillis) {
+        pending.incrementAndGet();
+        timer.newTimeout(timeout -> {
+            pending.decrementAndGet();
+            dispatch(entry);
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public long getPending() {
+        return pending.get();
+    }
+
+    @Override
+    public void shutdown() {
+        Set<Timeout> unprocessed = timer.stop();
+        if (!unprocessed.isEmpty()) {
+            logger.warn("Dropped {} pending retries on shutdown", unprocessed.size());
+        }
+        super.shutdown();
+    }
+}
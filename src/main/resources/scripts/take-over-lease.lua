@@ -0,0 +1,10 @@
+-- Acquires the lease of a retried message when it is free or still held by the consumer that failed the message.
+-- KEYS[1] lease key, ARGV[1] previous owner, ARGV[2] new owner, ARGV[3] lease expiration in seconds
+if redis.call('SET', KEYS[1], ARGV[2], 'NX', 'EX', ARGV[3]) then
+    return 1
+end
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    redis.call('SET', KEYS[1], ARGV[2], 'EX', ARGV[3])
+    return 1
+end
+return 0
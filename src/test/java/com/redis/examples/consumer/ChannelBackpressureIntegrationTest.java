@@ -0,0 +1,96 @@
+package com.redis.examples.consumer;
+
+import io.lettuce.core.api.sync.RedisCommands;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.redis.examples.consumer.Constants.S_KEY_PROCESSED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * A channel whose executor queue is full drops messages without blocking the subscription.
+ */
+@SpringBootTest(properties = {
+        "heartbeat.interval=100",
+        "consumer.channels[0].name=messages:published",
+        "consumer.channels[0].executor-threads=1",
+        "consumer.channels[0].executor-queue-capacity=2"})
+class ChannelBackpressureIntegrationTest extends InMemoryRedisIntegrationTest {
+
+    @Autowired
+    RedisConsumerService redisConsumerService;
+
+    @Autowired
+    ChannelRegistry channelRegistry;
+
+    @Autowired
+    RedisCommands<String, String> redisCommands;
+
+    @SpyBean
+    MessageProcessor messageProcessor;
+
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final Set<String> threads = new ConcurrentSkipListSet<>();
+
+    @BeforeEach
+    void setUp() {
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> channelRegistry.getDefaultBinding().getSlotManager().getActiveSubscribers()
+                        .contains(redisConsumerService.getConsumerId()));
+        redisCommands.del(S_KEY_PROCESSED);
+
+        doAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            if (invocation.getArgument(0, Message.class).getMessageId().equals("blocking")) {
+                blocked.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return invocation.callRealMethod();
+        }).when(messageProcessor).process(any(Message.class), anyString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+    }
+
+    @Test
+    void fullQueueDropsMessagesAndKeepsSubscription() throws Exception {
+        double rejected = redisConsumerService.getRejected();
+
+        publish("blocking");
+        assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+        // Two messages fill the queue of the single executor thread, the others are dropped
+        for (int i = 0; i < 10; i++) {
+            publish("queued-" + i);
+        }
+        await().atMost(Duration.ofSeconds(5)).until(() -> redisConsumerService.getRejected() == rejected + 8);
+
+        // The subscription keeps receiving once the executor caught up
+        release.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() -> redisCommands.xlen(S_KEY_PROCESSED) == 3);
+        publish("after");
+        await().atMost(Duration.ofSeconds(5)).until(() -> redisCommands.xlen(S_KEY_PROCESSED) == 4);
+
+        assertThat(threads).allMatch(thread -> thread.startsWith("channel-messages:published-"));
+    }
+
+    private void publish(String messageId) {
+        assertThat(redisCommands.publish("messages:published", "{\"message_id\":\"" + messageId + "\"}")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,76 @@
+package com.redis.examples.consumer;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsumerEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void rebalanceEventRecordsMovedSlots() throws Exception {
+        HashSlotManager slotManager = new HashSlotManager(16, 1);
+        Path file = tempDir.resolve("rebalance.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(ConsumerEvents.Rebalance.class).withThreshold(Duration.ZERO);
+            recording.start();
+            slotManager.updateSlotMap(List.of("Consumer-1"));
+            slotManager.updateSlotMap(List.of("Consumer-1", "Consumer-2"));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals("com.redis.examples.consumer.Rebalance"))
+                .toList();
+
+        assertThat(events).hasSize(2);
+        assertThat(events.get(0).getInt("movedSlots")).isEqualTo(16);
+        assertThat(events.get(1).getInt("consumers")).isEqualTo(2);
+        assertThat(events.get(1).getInt("movedSlots")).isEqualTo(8);
+        assertThat(events.get(1).getInt("movedPrimaries")).isEqualTo(8);
+    }
+
+    @Test
+    void rebalanceEventRecordsMovedPrimariesOfReorderedReplicas() throws Exception {
+        HashSlotManager slotManager = new HashSlotManager(16, 2);
+        Path file = tempDir.resolve("primaries.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(ConsumerEvents.Rebalance.class).withThreshold(Duration.ZERO);
+            slotManager.updateSlotMap(List.of("Consumer-1", "Consumer-2", "Consumer-3"));
+            recording.start();
+            slotManager.updateSlotMap(List.of("Consumer-1", "Consumer-2"));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        RecordedEvent event = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("com.redis.examples.consumer.Rebalance"))
+                .findFirst()
+                .orElseThrow();
+
+        // Slots 3, 9 and 15 keep Consumer-1 and Consumer-2 as replicas but Consumer-2 becomes their primary
+        assertThat(event.getInt("movedSlots")).isEqualTo(10);
+        assertThat(event.getInt("movedPrimaries")).isEqualTo(11);
+    }
+
+    @Test
+    void disabledEventsAreNotCommitted() {
+        ConsumerEvents.MessageReceived event = new ConsumerEvents.MessageReceived();
+        event.begin();
+        event.end();
+        assertThat(event.shouldCommit()).isFalse();
+    }
+}
@@ -0,0 +1,22 @@
+package com.redis.examples.consumer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsumerRuntimeHintsTest {
+
+    @Test
+    void registerHints() {
+        RuntimeHints hints = new RuntimeHints();
+        new ConsumerRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertThat(RuntimeHintsPredicates.reflection().onType(Message.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(RetryEntry.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(RedisTimeSeriesCommands.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(RedisRetryScheduler.class, "pollDueRetries")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.proxies().forInterfaces(RedisTimeSeriesCommands.class)).accepts(hints);
+    }
+}
@@ -0,0 +1,52 @@
+package com.redis.examples.consumer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashSlotManagerTest {
+
+    @Test
+    void primariesSpreadEvenly() {
+        for (int consumers = 1; consumers <= 6; consumers++) {
+            for (int replicas = 1; replicas <= 4; replicas++) {
+                List<String> members = new ArrayList<>();
+                for (int i = 0; i < consumers; i++) {
+                    members.add("Consumer-" + i);
+                }
+                HashSlotManager slotManager = new HashSlotManager(240, replicas, HashSlotManager.ReplicaMode.STANDBY);
+                slotManager.updateSlotMap(members);
+
+                Map<String, Integer> primaries = new HashMap<>();
+                slotManager.getSlotAssignments().values()
+                        .forEach(subscribers -> primaries.merge(subscribers.iterator().next(), 1, Integer::sum));
+
+                assertThat(primaries).as("%d consumers, %d replicas", consumers, replicas).hasSize(consumers);
+                assertThat(primaries.values()).containsOnly(240 / consumers);
+            }
+        }
+    }
+
+    @Test
+    void replicaRankFollowsReplicaOrder() {
+        HashSlotManager slotManager = new HashSlotManager(64, 3, HashSlotManager.ReplicaMode.STANDBY);
+        slotManager.updateSlotMap(List.of("Consumer-a", "Consumer-b", "Consumer-c", "Consumer-d"));
+
+        for (int i = 0; i < 100; i++) {
+            String key = UUID.randomUUID().toString();
+            List<String> replicas = slotManager.getReplicas(key);
+            assertThat(replicas).hasSize(3).doesNotHaveDuplicates();
+            for (int rank = 0; rank < replicas.size(); rank++) {
+                assertThat(slotManager.getReplicaRank(key, replicas.get(rank))).isEqualTo(rank);
+                assertThat(slotManager.isProcessedBy(key, replicas.get(rank))).isTrue();
+            }
+            assertThat(slotManager.getReplicaRank(key, "Consumer-unknown")).isEqualTo(-1);
+        }
+    }
+}
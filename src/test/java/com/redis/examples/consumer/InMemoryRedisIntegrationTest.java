@@ -0,0 +1,44 @@
+package com.redis.examples.consumer;
+
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Base class of integration tests running against their own {@link InMemoryRedisServer}.
+ * <p>
+ * The server is started before the Spring context of the test class is created and stopped after it is closed,
+ * so consumers deregister before the server goes away.
+ */
+@ExtendWith(InMemoryRedisIntegrationTest.ServerExtension.class)
+@DirtiesContext
+abstract class InMemoryRedisIntegrationTest {
+
+    static InMemoryRedisServer server;
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.port", () -> server.getPort());
+    }
+
+    /**
+     * Registered ahead of the {@code SpringExtension} of subclasses, its callbacks wrap the ones closing the context.
+     */
+    static class ServerExtension implements BeforeAllCallback, AfterAllCallback {
+
+        @Override
+        public void beforeAll(ExtensionContext context) throws Exception {
+            server = new InMemoryRedisServer().start();
+        }
+
+        @Override
+        public void afterAll(ExtensionContext context) throws Exception {
+            server.close();
+            server = null;
+        }
+    }
+}
@@ -0,0 +1,1163 @@
+package com.redis.examples.consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Lightweight in-process stand-in for a Redis server, speaking RESP2 and RESP3 (negotiated with {@code HELLO}).
+ * <p>
+ * Implements only the subset of commands used by the consumer: PUBLISH/SUBSCRIBE/PSUBSCRIBE, SET (NX, XX, EX, PX),
+ * GET, DEL, EXISTS, EXPIRE/PEXPIRE, LPUSH/RPUSH/LRANGE/LREM, ZADD/ZRANGEBYSCORE/ZREM/ZCARD, XADD/XRANGE/XLEN,
+ * TS.CREATE/TS.ADD and the connection handshake.
+ * Keyspace operations are serialized on a single lock, mirroring the single threaded Redis execution model.
+ * <p>
+ * A latency (with optional random jitter) can be injected before every command reply to model network round trips.
+ */
+public class InMemoryRedisServer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryRedisServer.class);
+
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private final Map<String, Entry> keyspace = new HashMap<>();
+
+    private final Map<String, Set<Connection>> channelSubscribers = new ConcurrentHashMap<>();
+    private final Map<String, Set<Connection>> patternSubscribers = new ConcurrentHashMap<>();
+
+    private final Set<Connection> connections = new CopyOnWriteArraySet<>();
+    private final AtomicLong connectionIds = new AtomicLong();
+    private final AtomicLong commandsProcessed = new AtomicLong();
+
+    private volatile Consumer<List<String>> commandListener;
+
+    private volatile Duration latency = Duration.ZERO;
+    private volatile Duration latencyJitter = Duration.ZERO;
+
+    // Lua is not interpreted, the scripts of the consumer are emulated. Keyed by SHA1 of the script.
+    private final Map<String, ScriptEmulation> scripts = new ConcurrentHashMap<>();
+
+    private ServerSocket serverSocket;
+    private Thread acceptor;
+
+    /**
+     * Emulation of a Lua script, executed atomically while holding the keyspace lock.
+     * Returns a {@link Long}, a {@link String} or {@code null}.
+     */
+    @FunctionalInterface
+    private interface ScriptEmulation {
+        Object eval(List<String> keys, List<String> args);
+    }
+
+    public InMemoryRedisServer() {
+        registerScript("scripts/take-over-lease.lua", this::takeOverLease);
+    }
+
+    /**
+     * Starts the server on a random free loopback port.
+     */
+    public InMemoryRedisServer start() throws IOException {
+        return start(0);
+    }
+
+    public InMemoryRedisServer start(int port) throws IOException {
+        serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        acceptor = new Thread(this::acceptConnections, "in-memory-redis-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        logger.info("In-memory Redis server listening on port {}", getPort());
+        return this;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Latency injected before each command reply.
+     *
+     * @param latency fixed delay
+     * @param jitter  upper bound of an additional uniformly distributed random delay
+     */
+    public void setLatency(Duration latency, Duration jitter) {
+        this.latency = latency;
+        this.latencyJitter = jitter;
+    }
+
+    /**
+     * Listener notified of every command before it is executed, with the command name upper-cased.
+     */
+    public void setCommandListener(Consumer<List<String>> commandListener) {
+        this.commandListener = commandListener;
+    }
+
+    public long getCommandsProcessed() {
+        return commandsProcessed.get();
+    }
+
+    public void flushAll() {
+        synchronized (keyspace) {
+            keyspace.clear();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+        for (Connection connection : connections) {
+            connection.close();
+        }
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Connection connection = new Connection(connectionIds.incrementAndGet(), socket);
+                connections.add(connection);
+                Thread thread = new Thread(connection, "in-memory-redis-conn-" + connection.id);
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    logger.error("Error accepting connection", e);
+                }
+            }
+        }
+    }
+
+    private void injectLatency() {
+        long nanos = latency.toNanos();
+        long jitter = latencyJitter.toNanos();
+        if (jitter > 0) {
+            nanos += ThreadLocalRandom.current().nextLong(jitter);
+        }
+        if (nanos > 0) {
+            LockSupport.parkNanos(nanos);
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // Keyspace
+    // ---------------------------------------------------------------------------------------------------------------
+
+    private static class Entry {
+        final Object value;
+        long expireAt;
+
+        Entry(Object value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+
+        boolean isExpired(long now) {
+            return expireAt > 0 && expireAt <= now;
+        }
+    }
+
+    private static class SortedSetValue extends HashMap<String, Double> {
+    }
+
+    private static class StreamValue {
+        final TreeMap<StreamId, List<byte[]>> entries = new TreeMap<>();
+        StreamId lastId = new StreamId(0, 0);
+    }
+
+    private record StreamId(long millis, long sequence) implements Comparable<StreamId> {
+
+        static StreamId parse(String id, boolean end) {
+            if (id.equals("-")) {
+                return new StreamId(0, 0);
+            }
+            if (id.equals("+")) {
+                return new StreamId(Long.MAX_VALUE, Long.MAX_VALUE);
+            }
+            int dash = id.indexOf('-');
+            if (dash < 0) {
+                return new StreamId(Long.parseLong(id), end ? Long.MAX_VALUE : 0);
+            }
+            return new StreamId(Long.parseLong(id.substring(0, dash)), Long.parseLong(id.substring(dash + 1)));
+        }
+
+        @Override
+        public int compareTo(StreamId o) {
+            int result = Long.compare(millis, o.millis);
+            return result != 0 ? result : Long.compare(sequence, o.sequence);
+        }
+
+        @Override
+        public String toString() {
+            return millis + "-" + sequence;
+        }
+    }
+
+    private static class WrongTypeException extends RuntimeException {
+        WrongTypeException() {
+            super("WRONGTYPE Operation against a key holding the wrong kind of value");
+        }
+    }
+
+    private static class CommandException extends RuntimeException {
+        CommandException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Returns live value of the key, or null when missing or expired. Caller must hold the keyspace lock.
+     */
+    private <T> T get(String key, Class<T> type) {
+        Entry entry = keyspace.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            keyspace.remove(key);
+            return null;
+        }
+        if (!type.isInstance(entry.value)) {
+            throw new WrongTypeException();
+        }
+        return type.cast(entry.value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private LinkedList<byte[]> getList(String key) {
+        return get(key, LinkedList.class);
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // Client connection
+    // ---------------------------------------------------------------------------------------------------------------
+
+    private class Connection implements Runnable {
+        private final long id;
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        // Pub/Sub deliveries are made once the publishing connection released its own lock
+        private final List<Runnable> deliveries = new ArrayList<>();
+
+        private final Set<String> channels = new HashSet<>();
+        private final Set<String> patterns = new HashSet<>();
+
+        private volatile int protocol = 2;
+
+        Connection(long id, Socket socket) throws IOException {
+            this.id = id;
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream());
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!socket.isClosed()) {
+                    List<byte[]> command = readCommand();
+                    if (command == null) {
+                        break;
+                    }
+                    if (command.isEmpty()) {
+                        continue;
+                    }
+                    injectLatency();
+                    synchronized (this) {
+                        execute(command);
+                        // Flush only once the pipelined commands were consumed
+                        if (in.available() == 0) {
+                            out.flush();
+                        }
+                    }
+                    deliveries.forEach(Runnable::run);
+                    deliveries.clear();
+                    commandsProcessed.incrementAndGet();
+                }
+            } catch (EOFException | SocketException e) {
+                // client disconnected
+            } catch (IOException e) {
+                logger.error("Connection {} failed", id, e);
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            unsubscribeAll();
+            connections.remove(this);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+
+        private List<byte[]> readCommand() throws IOException {
+            int type = in.read();
+            if (type == -1) {
+                return null;
+            }
+            if (type != '*') {
+                // Inline command
+                String line = (char) type + readLine();
+                List<byte[]> args = new ArrayList<>();
+                for (String arg : line.trim().split("\\s+")) {
+                    if (!arg.isEmpty()) {
+                        args.add(arg.getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+                return args;
+            }
+            int count = Integer.parseInt(readLine());
+            List<byte[]> args = new ArrayList<>(Math.max(count, 0));
+            for (int i = 0; i < count; i++) {
+                if (in.read() != '$') {
+                    throw new IOException("Protocol error, expected bulk string");
+                }
+                int length = Integer.parseInt(readLine());
+                byte[] arg = in.readNBytes(length);
+                if (arg.length != length || in.read() != '\r' || in.read() != '\n') {
+                    throw new EOFException();
+                }
+                args.add(arg);
+            }
+            return args;
+        }
+
+        private String readLine() throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(16);
+            int b;
+            while ((b = in.read()) != '\r') {
+                if (b == -1) {
+                    throw new EOFException();
+                }
+                line.write(b);
+            }
+            in.read(); // \n
+            return line.toString(StandardCharsets.UTF_8);
+        }
+
+        // ---- reply encoding ----
+
+        private void writeLine(char type, String value) throws IOException {
+            out.write(type);
+            out.write(value.getBytes(StandardCharsets.UTF_8));
+            out.write(CRLF);
+        }
+
+        void simple(String value) throws IOException {
+            writeLine('+', value);
+        }
+
+        void error(String message) throws IOException {
+            writeLine('-', message);
+        }
+
+        void integer(long value) throws IOException {
+            writeLine(':', Long.toString(value));
+        }
+
+        void bulk(byte[] value) throws IOException {
+            if (value == null) {
+                nil();
+                return;
+            }
+            writeLine('$', Integer.toString(value.length));
+            out.write(value);
+            out.write(CRLF);
+        }
+
+        void bulk(String value) throws IOException {
+            bulk(value != null ? value.getBytes(StandardCharsets.UTF_8) : null);
+        }
+
+        void nil() throws IOException {
+            if (protocol == 3) {
+                out.write('_');
+                out.write(CRLF);
+            } else {
+                writeLine('$', "-1");
+            }
+        }
+
+        void arrayHeader(int size) throws IOException {
+            writeLine('*', Integer.toString(size));
+        }
+
+        void mapHeader(int size) throws IOException {
+            if (protocol == 3) {
+                writeLine('%', Integer.toString(size));
+            } else {
+                arrayHeader(size * 2);
+            }
+        }
+
+        void pushHeader(int size) throws IOException {
+            writeLine(protocol == 3 ? '>' : '*', Integer.toString(size));
+        }
+
+        synchronized void push(String kind, String pattern, String channel, byte[] payload) {
+            try {
+                pushHeader(pattern != null ? 4 : 3);
+                bulk(kind);
+                if (pattern != null) {
+                    bulk(pattern);
+                }
+                bulk(channel);
+                bulk(payload);
+                out.flush();
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        // ---- command dispatch ----
+
+        private void notifyListener(String name, List<byte[]> command) {
+            Consumer<List<String>> listener = commandListener;
+            if (listener == null) {
+                return;
+            }
+            List<String> args = new ArrayList<>(command.size());
+            args.add(name);
+            for (int i = 1; i < command.size(); i++) {
+                args.add(str(command.get(i)));
+            }
+            listener.accept(args);
+        }
+
+        private void execute(List<byte[]> command) throws IOException {
+            String name = str(command.get(0)).toUpperCase(Locale.ROOT);
+            notifyListener(name, command);
+            try {
+                switch (name) {
+                    case "PING" -> ping(command);
+                    case "HELLO" -> hello(command);
+                    case "AUTH", "SELECT", "READONLY" -> simple("OK");
+                    case "CLIENT" -> client(command);
+                    case "COMMAND" -> arrayHeader(0);
+                    case "QUIT" -> {
+                        simple("OK");
+                        out.flush();
+                        close();
+                    }
+                    case "FLUSHALL", "FLUSHDB" -> {
+                        flushAll();
+                        simple("OK");
+                    }
+                    case "PUBLISH" -> publish(command);
+                    case "SUBSCRIBE" -> subscribe(command, false);
+                    case "PSUBSCRIBE" -> subscribe(command, true);
+                    case "UNSUBSCRIBE" -> unsubscribe(command, false);
+                    case "PUNSUBSCRIBE" -> unsubscribe(command, true);
+                    case "SET" -> set(command);
+                    case "SETEX" -> setWithExpiration(command, 1000);
+                    case "PSETEX" -> setWithExpiration(command, 1);
+                    case "GET" -> getString(command);
+                    case "DEL" -> del(command);
+                    case "EXISTS" -> exists(command);
+                    case "EXPIRE" -> expire(command, 1000);
+                    case "PEXPIRE" -> expire(command, 1);
+                    case "TTL" -> ttl(command, 1000);
+                    case "PTTL" -> ttl(command, 1);
+                    case "LPUSH" -> listPush(command, true);
+                    case "RPUSH" -> listPush(command, false);
+                    case "LRANGE" -> lrange(command);
+                    case "LREM" -> lrem(command);
+                    case "ZADD" -> zadd(command);
+                    case "ZRANGEBYSCORE" -> zrangeByScore(command);
+                    case "ZREM" -> zrem(command);
+                    case "ZCARD" -> zcard(command);
+                    case "XADD" -> xadd(command);
+                    case "XRANGE" -> xrange(command);
+                    case "XLEN" -> xlen(command);
+                    case "TS.CREATE" -> tsCreate(command);
+                    case "TS.ADD" -> tsAdd(command);
+                    case "EVAL" -> eval(scripts.get(sha1(command.get(1))), command);
+                    case "EVALSHA" -> eval(scripts.get(str(command.get(1)).toLowerCase(Locale.ROOT)), command);
+                    case "SCRIPT" -> script(command);
+                    default -> error("ERR unknown command '" + name + "'");
+                }
+            } catch (WrongTypeException | CommandException e) {
+                error(e.getMessage());
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                error("ERR syntax error");
+            }
+        }
+
+        // ---- scripts ----
+
+        private void eval(ScriptEmulation emulation, List<byte[]> command) throws IOException {
+            if (emulation == null) {
+                error("NOSCRIPT No matching script. Please use EVAL.");
+                return;
+            }
+            int numKeys = Integer.parseInt(str(command.get(2)));
+            List<String> keys = new ArrayList<>();
+            List<String> args = new ArrayList<>();
+            for (int i = 3; i < command.size(); i++) {
+                (i < 3 + numKeys ? keys : args).add(str(command.get(i)));
+            }
+            Object result;
+            synchronized (keyspace) {
+                result = emulation.eval(keys, args);
+            }
+            if (result instanceof Long number) {
+                integer(number);
+            } else if (result instanceof String string) {
+                bulk(string);
+            } else {
+                nil();
+            }
+        }
+
+        private void script(List<byte[]> command) throws IOException {
+            String subcommand = str(command.get(1)).toUpperCase(Locale.ROOT);
+            switch (subcommand) {
+                case "LOAD" -> {
+                    String sha = sha1(command.get(2));
+                    if (!scripts.containsKey(sha)) {
+                        throw new CommandException("ERR script is not emulated by the in-memory server");
+                    }
+                    bulk(sha);
+                }
+                case "EXISTS" -> {
+                    arrayHeader(command.size() - 2);
+                    for (int i = 2; i < command.size(); i++) {
+                        integer(scripts.containsKey(str(command.get(i)).toLowerCase(Locale.ROOT)) ? 1 : 0);
+                    }
+                }
+                case "FLUSH" -> simple("OK");
+                default -> throw new CommandException("ERR unknown subcommand '" + subcommand + "'");
+            }
+        }
+
+        private void ping(List<byte[]> command) throws IOException {
+            if (!channels.isEmpty() || !patterns.isEmpty()) {
+                if (protocol == 2) {
+                    arrayHeader(2);
+                    bulk("pong");
+                    bulk(command.size() > 1 ? command.get(1) : new byte[0]);
+                    return;
+                }
+            }
+            if (command.size() > 1) {
+                bulk(command.get(1));
+            } else {
+                simple("PONG");
+            }
+        }
+
+        private void hello(List<byte[]> command) throws IOException {
+            if (command.size() > 1) {
+                int requested = Integer.parseInt(str(command.get(1)));
+                if (requested != 2 && requested != 3) {
+                    error("NOPROTO unsupported protocol version");
+                    return;
+                }
+                protocol = requested;
+            }
+            mapHeader(7);
+            bulk("server");
+            bulk("redis");
+            bulk("version");
+            bulk("7.2.0");
+            bulk("proto");
+            integer(protocol);
+            bulk("id");
+            integer(id);
+            bulk("mode");
+            bulk("standalone");
+            bulk("role");
+            bulk("master");
+            bulk("modules");
+            arrayHeader(0);
+        }
+
+        private void client(List<byte[]> command) throws IOException {
+            String subcommand = command.size() > 1 ? str(command.get(1)).toUpperCase(Locale.ROOT) : "";
+            if (subcommand.equals("ID")) {
+                integer(id);
+            } else {
+                simple("OK");
+            }
+        }
+
+        // ---- pub/sub ----
+
+        private void publish(List<byte[]> command) throws IOException {
+            String channel = str(command.get(1));
+            byte[] payload = command.get(2);
+            int receivers = 0;
+
+            Set<Connection> subscribers = channelSubscribers.get(channel);
+            if (subscribers != null) {
+                for (Connection subscriber : subscribers) {
+                    deliveries.add(() -> subscriber.push("message", null, channel, payload));
+                    receivers++;
+                }
+            }
+            for (Map.Entry<String, Set<Connection>> entry : patternSubscribers.entrySet()) {
+                if (globToRegex(entry.getKey()).matcher(channel).matches()) {
+                    for (Connection subscriber : entry.getValue()) {
+                        deliveries.add(() -> subscriber.push("pmessage", entry.getKey(), channel, payload));
+                        receivers++;
+                    }
+                }
+            }
+            integer(receivers);
+        }
+
+        private void subscribe(List<byte[]> command, boolean pattern) throws IOException {
+            Map<String, Set<Connection>> registry = pattern ? patternSubscribers : channelSubscribers;
+            Set<String> subscriptions = pattern ? patterns : channels;
+            for (int i = 1; i < command.size(); i++) {
+                String channel = str(command.get(i));
+                registry.computeIfAbsent(channel, c -> new CopyOnWriteArraySet<>()).add(this);
+                subscriptions.add(channel);
+                pushHeader(3);
+                bulk(pattern ? "psubscribe" : "subscribe");
+                bulk(channel);
+                integer(channels.size() + patterns.size());
+            }
+        }
+
+        private void unsubscribe(List<byte[]> command, boolean pattern) throws IOException {
+            Map<String, Set<Connection>> registry = pattern ? patternSubscribers : channelSubscribers;
+            Set<String> subscriptions = pattern ? patterns : channels;
+            List<String> targets = new ArrayList<>();
+            for (int i = 1; i < command.size(); i++) {
+                targets.add(str(command.get(i)));
+            }
+            if (targets.isEmpty()) {
+                targets.addAll(subscriptions);
+            }
+            if (targets.isEmpty()) {
+                pushHeader(3);
+                bulk(pattern ? "punsubscribe" : "unsubscribe");
+                nil();
+                integer(0);
+                return;
+            }
+            for (String channel : targets) {
+                Set<Connection> subscribers = registry.get(channel);
+                if (subscribers != null) {
+                    subscribers.remove(this);
+                }
+                subscriptions.remove(channel);
+                pushHeader(3);
+                bulk(pattern ? "punsubscribe" : "unsubscribe");
+                bulk(channel);
+                integer(channels.size() + patterns.size());
+            }
+        }
+
+        private void unsubscribeAll() {
+            channels.forEach(c -> Optional.ofNullable(channelSubscribers.get(c)).ifPresent(s -> s.remove(this)));
+            patterns.forEach(p -> Optional.ofNullable(patternSubscribers.get(p)).ifPresent(s -> s.remove(this)));
+        }
+
+        // ---- strings ----
+
+        private void set(List<byte[]> command) throws IOException {
+            String key = str(command.get(1));
+            byte[] value = command.get(2);
+            boolean nx = false;
+            boolean xx = false;
+            boolean keepTtl = false;
+            boolean returnOld = false;
+            long expireAt = 0;
+
+            for (int i = 3; i < command.size(); i++) {
+                String option = str(command.get(i)).toUpperCase(Locale.ROOT);
+                switch (option) {
+                    case "NX" -> nx = true;
+                    case "XX" -> xx = true;
+                    case "GET" -> returnOld = true;
+                    case "KEEPTTL" -> keepTtl = true;
+                    case "EX" -> expireAt = System.currentTimeMillis() + Long.parseLong(str(command.get(++i))) * 1000;
+                    case "PX" -> expireAt = System.currentTimeMillis() + Long.parseLong(str(command.get(++i)));
+                    case "EXAT" -> expireAt = Long.parseLong(str(command.get(++i))) * 1000;
+                    case "PXAT" -> expireAt = Long.parseLong(str(command.get(++i)));
+                    default -> throw new CommandException("ERR syntax error");
+                }
+            }
+
+            byte[] old;
+            boolean written;
+            synchronized (keyspace) {
+                Object current = get(key, Object.class);
+                old = current instanceof byte[] bytes ? bytes : null;
+                boolean exists = current != null;
+                written = !(nx && exists) && !(xx && !exists);
+                if (written) {
+                    Entry previous = keyspace.get(key);
+                    long expiration = keepTtl && previous != null ? previous.expireAt : expireAt;
+                    keyspace.put(key, new Entry(value, expiration));
+                }
+            }
+
+            if (returnOld) {
+                bulk(old);
+            } else if (written) {
+                simple("OK");
+            } else {
+                nil();
+            }
+        }
+
+        private void setWithExpiration(List<byte[]> command, long unitMillis) throws IOException {
+            String key = str(command.get(1));
+            long expireAt = System.currentTimeMillis() + Long.parseLong(str(command.get(2))) * unitMillis;
+            synchronized (keyspace) {
+                keyspace.put(key, new Entry(command.get(3), expireAt));
+            }
+            simple("OK");
+        }
+
+        private void getString(List<byte[]> command) throws IOException {
+            byte[] value;
+            synchronized (keyspace) {
+                value = get(str(command.get(1)), byte[].class);
+            }
+            bulk(value);
+        }
+
+        private void del(List<byte[]> command) throws IOException {
+            long removed = 0;
+            synchronized (keyspace) {
+                for (int i = 1; i < command.size(); i++) {
+                    String key = str(command.get(i));
+                    if (get(key, Object.class) != null) {
+                        keyspace.remove(key);
+                        removed++;
+                    }
+                }
+            }
+            integer(removed);
+        }
+
+        private void exists(List<byte[]> command) throws IOException {
+            long count = 0;
+            synchronized (keyspace) {
+                for (int i = 1; i < command.size(); i++) {
+                    if (get(str(command.get(i)), Object.class) != null) {
+                        count++;
+                    }
+                }
+            }
+            integer(count);
+        }
+
+        private void expire(List<byte[]> command, long unitMillis) throws IOException {
+            String key = str(command.get(1));
+            long expireAt = System.currentTimeMillis() + Long.parseLong(str(command.get(2))) * unitMillis;
+            boolean updated = false;
+            synchronized (keyspace) {
+                if (get(key, Object.class) != null) {
+                    keyspace.get(key).expireAt = expireAt;
+                    updated = true;
+                }
+            }
+            integer(updated ? 1 : 0);
+        }
+
+        private void ttl(List<byte[]> command, long unitMillis) throws IOException {
+            String key = str(command.get(1));
+            long ttl;
+            synchronized (keyspace) {
+                if (get(key, Object.class) == null) {
+                    ttl = -2;
+                } else if (keyspace.get(key).expireAt == 0) {
+                    ttl = -1;
+                } else {
+                    ttl = (keyspace.get(key).expireAt - System.currentTimeMillis() + unitMillis / 2) / unitMillis;
+                }
+            }
+            integer(ttl);
+        }
+
+        // ---- lists ----
+
+        private void listPush(List<byte[]> command, boolean head) throws IOException {
+            String key = str(command.get(1));
+            int size;
+            synchronized (keyspace) {
+                LinkedList<byte[]> list = getList(key);
+                if (list == null) {
+                    list = new LinkedList<>();
+                    keyspace.put(key, new Entry(list, 0));
+                }
+                for (int i = 2; i < command.size(); i++) {
+                    if (head) {
+                        list.addFirst(command.get(i));
+                    } else {
+                        list.addLast(command.get(i));
+                    }
+                }
+                size = list.size();
+            }
+            integer(size);
+        }
+
+        private void lrange(List<byte[]> command) throws IOException {
+            String key = str(command.get(1));
+            long start = Long.parseLong(str(command.get(2)));
+            long stop = Long.parseLong(str(command.get(3)));
+            List<byte[]> range = new ArrayList<>();
+            synchronized (keyspace) {
+                LinkedList<byte[]> list = getList(key);
+                if (list != null) {
+                    int size = list.size();
+                    int from = (int) Math.max(start < 0 ? size + start : start, 0);
+                    int to = (int) Math.min(stop < 0 ? size + stop : stop, size - 1);
+                    if (from <= to) {
+                        range.addAll(list.subList(from, to + 1));
+                    }
+                }
+            }
+            arrayHeader(range.size());
+            for (byte[] value : range) {
+                bulk(value);
+            }
+        }
+
+        private void lrem(List<byte[]> command) throws IOException {
+            String key = str(command.get(1));
+            long count = Long.parseLong(str(command.get(2)));
+            byte[] value = command.get(3);
+            long removed = 0;
+            synchronized (keyspace) {
+                LinkedList<byte[]> list = getList(key);
+                if (list != null) {
+                    Iterator<byte[]> iterator = count < 0 ? list.descendingIterator() : list.iterator();
+                    long limit = count == 0 ? Long.MAX_VALUE : Math.abs(count);
+                    while (iterator.hasNext() && removed < limit) {
+                        if (Arrays.equals(iterator.next(), value)) {
+                            iterator.remove();
+                            removed++;
+                        }
+                    }
+                    if (list.isEmpty()) {
+                        keyspace.remove(key);
+                    }
+                }
+            }
+            integer(removed);
+        }
+
+        // ---- sorted sets ----
+
+        private void zadd(List<byte[]> command) throws IOException {
+            String key = str(command.get(1));
+            int added = 0;
+            synchronized (keyspace) {
+                SortedSetValue set = get(key, SortedSetValue.class);
+                if (set == null) {
+                    set = new SortedSetValue();
+                    keyspace.put(key, new Entry(set, 0));
+                }
+                for (int i = 2; i + 1 < command.size(); i += 2) {
+                    if (set.put(str(command.get(i + 1)), Double.parseDouble(str(command.get(i)))) == null) {
+                        added++;
+                    }
+                }
+            }
+            integer(added);
+        }
+
+        private void zrangeByScore(List<byte[]> command) throws IOException {
+            String key = str(command.get(1));
+            double min = parseScore(str(command.get(2)));
+            double max = parseScore(str(command.get(3)));
+            long offset = 0;
+            long count = Long.MAX_VALUE;
+            boolean withScores = false;
+            for (int i = 4; i < command.size(); i++) {
+                String option = str(command.get(i)).toUpperCase(Locale.ROOT);
+                if (option.equals("LIMIT")) {
+                    offset = Long.parseLong(str(command.get(++i)));
+                    count = Long.parseLong(str(command.get(++i)));
+                    count = count < 0 ? Long.MAX_VALUE : count;
+                } else if (option.equals("WITHSCORES")) {
+                    withScores = true;
+                }
+            }
+            List<Map.Entry<String, Double>> range;
+            synchronized (keyspace) {
+                SortedSetValue set = get(key, SortedSetValue.class);
+                range = set == null ? List.of() : set.entrySet().stream()
+                        .filter(e -> e.getValue() >= min && e.getValue() <= max)
+                        .sorted(Map.Entry.<String, Double>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                        .skip(offset)
+                        .limit(count)
+                        .map(e -> Map.entry(e.getKey(), e.getValue()))
+                        .toList();
+            }
+            arrayHeader(withScores ? range.size() * 2 : range.size());
+            for (Map.Entry<String, Double> entry : range) {
+                bulk(entry.getKey());
+                if (withScores) {
+                    bulk(Double.toString(entry.getValue()));
+                }
+            }
+        }
+
+        private double parseScore(String score) {
+            return switch (score) {
+                case "-inf" -> Double.NEGATIVE_INFINITY;
+                case "+inf", "inf" -> Double.POSITIVE_INFINITY;
+                default -> Double.parseDouble(score);
+            };
+        }
+
+        private void zrem(List<byte[]> command) throws IOException {
+            String key = str(command.get(1));
+            int removed = 0;
+            synchronized (keyspace) {
+                SortedSetValue set = get(key, SortedSetValue.class);
+                if (set != null) {
+                    for (int i = 2; i < command.size(); i++) {
+                        if (set.remove(str(command.get(i))) != null) {
+                            removed++;
+                        }
+                    }
+                    if (set.isEmpty()) {
+                        keyspace.remove(key);
+                    }
+                }
+            }
+            integer(removed);
+        }
+
+        private void zcard(List<byte[]> command) throws IOException {
+            int size;
+            synchronized (keyspace) {
+                SortedSetValue set = get(str(command.get(1)), SortedSetValue.class);
+                size = set != null ? set.size() : 0;
+            }
+            integer(size);
+        }
+
+        // ---- streams ----
+
+        private void xadd(List<byte[]> command) throws IOException {
+            String key = str(command.get(1));
+            int i = 2;
+            boolean noMkStream = false;
+            // Skip trimming options, streams are never trimmed by this server
+            while (true) {
+                String option = str(command.get(i)).toUpperCase(Locale.ROOT);
+                if (option.equals("NOMKSTREAM")) {
+                    noMkStream = true;
+                    i++;
+                } else if (option.equals("MAXLEN") || option.equals("MINID")) {
+                    i++;
+                    String next = str(command.get(i));
+                    if (next.equals("~") || next.equals("=")) {
+                        i++;
+                    }
+                    i++;
+                    if (str(command.get(i)).equalsIgnoreCase("LIMIT")) {
+                        i += 2;
+                    }
+                } else {
+                    break;
+                }
+            }
+            String requestedId = str(command.get(i++));
+            if ((command.size() - i) % 2 != 0 || command.size() == i) {
+                throw new CommandException("ERR wrong number of arguments for 'xadd' command");
+            }
+
+            StreamId id;
+            synchronized (keyspace) {
+                StreamValue stream = get(key, StreamValue.class);
+                if (stream == null) {
+                    if (noMkStream) {
+                        nil();
+                        return;
+                    }
+                    stream = new StreamValue();
+                    keyspace.put(key, new Entry(stream, 0));
+                }
+                if (requestedId.equals("*")) {
+                    long now = System.currentTimeMillis();
+                    id = now > stream.lastId.millis()
+                            ? new StreamId(now, 0)
+                            : new StreamId(stream.lastId.millis(), stream.lastId.sequence() + 1);
+                } else {
+                    id = StreamId.parse(requestedId, false);
+                    if (id.compareTo(stream.lastId) <= 0) {
+                        throw new CommandException(
+                                "ERR The ID specified in XADD is equal or smaller than the target stream top item");
+                    }
+                }
+                stream.entries.put(id, new ArrayList<>(command.subList(i, command.size())));
+                stream.lastId = id;
+            }
+            bulk(id.toString());
+        }
+
+        private void xrange(List<byte[]> command) throws IOException {
+            String key = str(command.get(1));
+            StreamId start = StreamId.parse(str(command.get(2)), false);
+            StreamId end = StreamId.parse(str(command.get(3)), true);
+            long count = Long.MAX_VALUE;
+            if (command.size() > 5 && str(command.get(4)).equalsIgnoreCase("COUNT")) {
+                count = Long.parseLong(str(command.get(5)));
+            }
+
+            List<Map.Entry<StreamId, List<byte[]>>> range = new ArrayList<>();
+            synchronized (keyspace) {
+                StreamValue stream = get(key, StreamValue.class);
+                if (stream != null && start.compareTo(end) <= 0) {
+                    for (Map.Entry<StreamId, List<byte[]>> entry : stream.entries.subMap(start, true, end, true).entrySet()) {
+                        if (range.size() >= count) {
+                            break;
+                        }
+                        range.add(entry);
+                    }
+                }
+            }
+
+            arrayHeader(range.size());
+            for (Map.Entry<StreamId, List<byte[]>> entry : range) {
+                arrayHeader(2);
+                bulk(entry.getKey().toString());
+                arrayHeader(entry.getValue().size());
+                for (byte[] field : entry.getValue()) {
+                    bulk(field);
+                }
+            }
+        }
+
+        private void xlen(List<byte[]> command) throws IOException {
+            int length;
+            synchronized (keyspace) {
+                StreamValue stream = get(str(command.get(1)), StreamValue.class);
+                length = stream != null ? stream.entries.size() : 0;
+            }
+            integer(length);
+        }
+
+        // ---- time series ----
+
+        private void tsCreate(List<byte[]> command) throws IOException {
+            String key = str(command.get(1));
+            synchronized (keyspace) {
+                if (get(key, Object.class) != null) {
+                    throw new CommandException("ERR TSDB: key already exists");
+                }
+                keyspace.put(key, new Entry(new TreeMap<Long, Double>(), 0));
+            }
+            simple("OK");
+        }
+
+        @SuppressWarnings("unchecked")
+        private void tsAdd(List<byte[]> command) throws IOException {
+            String key = str(command.get(1));
+            String rawTimestamp = str(command.get(2));
+            long timestamp = rawTimestamp.equals("*") ? System.currentTimeMillis() : Long.parseLong(rawTimestamp);
+            double value = Double.parseDouble(str(command.get(3)));
+            synchronized (keyspace) {
+                TreeMap<Long, Double> series = get(key, TreeMap.class);
+                if (series == null) {
+                    series = new TreeMap<>();
+                    keyspace.put(key, new Entry(series, 0));
+                }
+                series.put(timestamp, value);
+            }
+            integer(timestamp);
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // Scripts
+    // ---------------------------------------------------------------------------------------------------------------
+
+    private void registerScript(String resource, ScriptEmulation emulation) {
+        try (InputStream in = InMemoryRedisServer.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Script not found: " + resource);
+            }
+            scripts.put(sha1(in.readAllBytes()), emulation);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read script " + resource, e);
+        }
+    }
+
+    private static String sha1(byte[] script) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(script));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String getValue(String key) {
+        byte[] value = get(key, byte[].class);
+        return value != null ? str(value) : null;
+    }
+
+    private void setValue(String key, String value, long expireAt) {
+        keyspace.put(key, new Entry(value.getBytes(StandardCharsets.UTF_8), expireAt));
+    }
+
+    private Object takeOverLease(List<String> keys, List<String> args) {
+        String current = getValue(keys.get(0));
+        if (current == null || current.equals(args.get(0))) {
+            setValue(keys.get(0), args.get(1), System.currentTimeMillis() + Long.parseLong(args.get(2)) * 1000);
+            return 1L;
+        }
+        return 0L;
+    }
+
+    private static String str(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static final Map<String, Pattern> globPatterns = new ConcurrentHashMap<>();
+
+    private static Pattern globToRegex(String glob) {
+        return globPatterns.computeIfAbsent(glob, g -> {
+            StringBuilder regex = new StringBuilder();
+            for (char c : g.toCharArray()) {
+                switch (c) {
+                    case '*' -> regex.append(".*");
+                    case '?' -> regex.append('.');
+                    case '[', ']' -> regex.append(c);
+                    case '\\' -> regex.append("\\\\");
+                    default -> regex.append(Pattern.quote(String.valueOf(c)));
+                }
+            }
+            return Pattern.compile(regex.toString());
+        });
+    }
+}
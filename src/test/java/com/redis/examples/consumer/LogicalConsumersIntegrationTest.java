@@ -0,0 +1,74 @@
+package com.redis.examples.consumer;
+
+import io.lettuce.core.Range;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.redis.examples.consumer.Constants.S_KEY_PROCESSED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Several logical consumers hosted by one process against {@link InMemoryRedisServer}.
+ */
+@SpringBootTest(properties = {
+        "heartbeat.interval=100",
+        "consumer.logical.count=3"})
+class LogicalConsumersIntegrationTest extends InMemoryRedisIntegrationTest {
+
+    @Autowired
+    RedisConsumerService redisConsumerService;
+
+    @Autowired
+    ChannelRegistry channelRegistry;
+
+    @Autowired
+    RedisCommands<String, String> redisCommands;
+
+    @Test
+    void logicalConsumersShareSubscription() {
+        Set<String> consumerIds = Set.copyOf(redisConsumerService.getConsumerIds());
+        assertThat(consumerIds).hasSize(3);
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> channelRegistry.getBindings().get(0).getSlotManager().getActiveSubscribers().equals(consumerIds));
+        assertThat(consumerIds).allSatisfy(id ->
+                assertThat(redisCommands.exists(HeartbeatService.getHeartbeatKey(id))).isEqualTo(1));
+
+        for (int i = 0; i < 300; i++) {
+            // One subscriber per process receives each message
+            assertThat(redisCommands.publish("messages:published", "{\"message_id\":\"logical-" + i + "\"}"))
+                    .isEqualTo(1);
+        }
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> redisCommands.xlen(S_KEY_PROCESSED) == 300);
+        Set<String> processedBy = redisCommands.xrange(S_KEY_PROCESSED, Range.create("-", "+")).stream()
+                .map(StreamMessage::getBody)
+                .map(body -> body.get("processedBy"))
+                .collect(Collectors.toSet());
+        assertThat(processedBy).isEqualTo(consumerIds);
+    }
+
+    @Test
+    void replicasOfSlotRunInDifferentProcesses() {
+        List<String> otherIds = new RedisConsumerService(3).getConsumerIds();
+        List<String> allIds = new ArrayList<>(redisConsumerService.getConsumerIds());
+        allIds.addAll(otherIds);
+
+        HashSlotManager slotManager = new HashSlotManager(256, 2);
+        slotManager.updateSlotMap(allIds);
+
+        assertThat(slotManager.getSlotAssignments().values()).allSatisfy(replicas -> {
+            assertThat(replicas).hasSize(2);
+            assertThat(replicas.stream().filter(otherIds::contains)).hasSize(1);
+        });
+    }
+}
@@ -0,0 +1,106 @@
+package com.redis.examples.consumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Measures {@link MessageEnvelopeDecoder} throughput for message envelopes of different sizes and formats.
+ * <p>
+ * Only decoding is measured, see {@code MultiConsumerThroughputTest} for end-to-end throughput.
+ * Run {@link #main} with the total number of messages per run as optional argument.
+ */
+public class MessageEnvelopeBenchmark {
+
+    public enum Format {
+        JSON, BINARY
+    }
+
+    /**
+     * Encodes message IDs as a single JSON message when there is one, otherwise as a JSON array envelope.
+     */
+    public static byte[] json(List<String> messageIds) {
+        StringBuilder sb = new StringBuilder();
+        if (messageIds.size() > 1) {
+            sb.append('[');
+        }
+        for (int i = 0; i < messageIds.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"message_id\":\"").append(messageIds.get(i)).append("\"}");
+        }
+        if (messageIds.size() > 1) {
+            sb.append(']');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static byte[] binary(List<String> messageIds) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(MessageEnvelopeDecoder.BINARY_MAGIC);
+        out.write(MessageEnvelopeDecoder.BINARY_VERSION);
+        for (String messageId : messageIds) {
+            byte[] bytes = messageId.getBytes(StandardCharsets.UTF_8);
+            out.write(bytes.length >> 8);
+            out.write(bytes.length);
+            out.writeBytes(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    public static byte[] encode(Format format, List<String> messageIds) {
+        return format == Format.BINARY ? binary(messageIds) : json(messageIds);
+    }
+
+    /**
+     * @return decoded messages per second
+     */
+    public static double run(Format format, int envelopeSize, int messages) throws IOException {
+        MessageEnvelopeDecoder decoder = new MessageEnvelopeDecoder(new ObjectMapper());
+
+        List<byte[]> payloads = new ArrayList<>();
+        for (int sent = 0; sent < messages; sent += envelopeSize) {
+            List<String> messageIds = new ArrayList<>();
+            for (int i = sent; i < Math.min(sent + envelopeSize, messages); i++) {
+                messageIds.add(UUID.randomUUID().toString());
+            }
+            payloads.add(encode(format, messageIds));
+        }
+
+        long[] checksum = new long[1];
+        double best = 0;
+        // Best of several rounds, the first ones warm up
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            int decoded = 0;
+            for (byte[] payload : payloads) {
+                decoded += decoder.decode(payload, msg -> checksum[0] += msg.getMessageId().length());
+            }
+            long elapsedNanos = System.nanoTime() - start;
+            best = Math.max(best, decoded * 1_000_000_000.0 / elapsedNanos);
+        }
+
+        if (checksum[0] == 0) {
+            throw new IllegalStateException("Nothing decoded");
+        }
+        return best;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        for (Format format : Format.values()) {
+            for (int envelopeSize : new int[]{1, 10, 100, 1000}) {
+                System.out.println(String.format(Locale.ROOT, "%-6s envelope=%4d %12.0f msgs/sec",
+                        format, envelopeSize, run(format, envelopeSize, messages)));
+            }
+        }
+    }
+}
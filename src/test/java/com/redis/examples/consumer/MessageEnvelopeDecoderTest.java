@@ -0,0 +1,65 @@
+package com.redis.examples.consumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MessageEnvelopeDecoderTest {
+
+    private final MessageEnvelopeDecoder decoder = new MessageEnvelopeDecoder(new ObjectMapper());
+
+    @Test
+    void decodesSingleMessage() throws IOException {
+        List<Message> decoded = new ArrayList<>();
+        int count = decoder.decode("{\"message_id\":\"m-1\",\"random_property\":\"x\"}".getBytes(StandardCharsets.UTF_8), decoded::add);
+
+        assertThat(count).isEqualTo(1);
+        assertThat(decoded).extracting(Message::getMessageId).containsExactly("m-1");
+        assertThat(decoded.get(0).getRandomProperty()).isEqualTo("x");
+    }
+
+    @Test
+    void decodesJsonEnvelope() throws IOException {
+        List<Message> decoded = new ArrayList<>();
+        int count = decoder.decode(MessageEnvelopeBenchmark.json(List.of("m-1", "m-2", "m-3")), decoded::add);
+
+        assertThat(count).isEqualTo(3);
+        assertThat(decoded).extracting(Message::getMessageId).containsExactly("m-1", "m-2", "m-3");
+        assertThat(decoder.decode(" [ ] ".getBytes(StandardCharsets.UTF_8), decoded::add)).isZero();
+    }
+
+    @Test
+    void decodesBinaryEnvelope() throws IOException {
+        List<Message> decoded = new ArrayList<>();
+        int count = decoder.decode(MessageEnvelopeBenchmark.binary(List.of("m-1", "", "m-é")), decoded::add);
+
+        assertThat(count).isEqualTo(3);
+        assertThat(decoded).extracting(Message::getMessageId).containsExactly("m-1", "", "m-é");
+    }
+
+    @Test
+    void rejectsMalformedEnvelopes() {
+        byte[] binary = MessageEnvelopeBenchmark.binary(List.of("m-1", "m-2"));
+        List<Message> decoded = new ArrayList<>();
+
+        assertThatThrownBy(() -> decoder.decode(Arrays.copyOf(binary, binary.length - 1), decoded::add))
+                .isInstanceOf(IOException.class);
+        // Messages before the malformed part are passed on
+        assertThat(decoded).extracting(Message::getMessageId).containsExactly("m-1");
+
+        assertThatThrownBy(() -> decoder.decode(new byte[]{MessageEnvelopeDecoder.BINARY_MAGIC, 9}, decoded::add))
+                .isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> decoder.decode("[{\"message_id\":\"m-1\"}, 1]".getBytes(StandardCharsets.UTF_8), decoded::add))
+                .isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> decoder.decode(new byte[0], decoded::add))
+                .isInstanceOf(IOException.class);
+    }
+}
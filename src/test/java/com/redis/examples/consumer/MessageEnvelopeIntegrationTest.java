@@ -0,0 +1,117 @@
+package com.redis.examples.consumer;
+
+import io.lettuce.core.Range;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static com.redis.examples.consumer.Constants.S_KEY_PROCESSED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Message envelopes handled by {@link RedisConsumerService#onMessage(ChannelBinding, byte[])} against {@link InMemoryRedisServer}.
+ */
+@SpringBootTest(properties = {
+        "heartbeat.interval=100",
+        "hashslot.slots.total=16",
+        "consumer.channels[0].name=messages:published",
+        "consumer.channels[0].executor-threads=4"})
+class MessageEnvelopeIntegrationTest extends InMemoryRedisIntegrationTest {
+
+    @Autowired
+    RedisConsumerService redisConsumerService;
+
+    @Autowired
+    ChannelRegistry channelRegistry;
+
+    @Autowired
+    RedisCommands<String, String> redisCommands;
+
+    @SpyBean
+    MessageProcessor messageProcessor;
+
+    // Message IDs in processing order and the threads processing them
+    private final List<String> processed = new CopyOnWriteArrayList<>();
+    private final Set<String> threads = new ConcurrentSkipListSet<>();
+
+    @BeforeEach
+    void setUp() {
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> getBinding().getSlotManager().getActiveSubscribers().contains(redisConsumerService.getConsumerId()));
+        redisCommands.del(S_KEY_PROCESSED);
+
+        doAnswer(invocation -> {
+            processed.add(invocation.getArgument(0, Message.class).getMessageId());
+            threads.add(Thread.currentThread().getName());
+            return invocation.callRealMethod();
+        }).when(messageProcessor).process(any(Message.class), anyString());
+    }
+
+    @ParameterizedTest
+    @EnumSource(MessageEnvelopeBenchmark.Format.class)
+    void envelopeMessagesProcessedOnceInOrderPerSlot(MessageEnvelopeBenchmark.Format format) {
+        List<String> messageIds = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            messageIds.add(format + "-" + i);
+        }
+
+        redisConsumerService.onMessage(getBinding(), MessageEnvelopeBenchmark.encode(format, messageIds));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> redisCommands.xlen(S_KEY_PROCESSED) == messageIds.size());
+        List<String> appended = redisCommands.xrange(S_KEY_PROCESSED, Range.create("-", "+")).stream()
+                .map(StreamMessage::getBody)
+                .map(body -> body.get("messageId"))
+                .toList();
+        assertThat(appended).containsExactlyInAnyOrderElementsOf(messageIds);
+        assertThat(processed).containsExactlyInAnyOrderElementsOf(messageIds);
+
+        // Messages of a slot are handled in envelope order by one thread
+        assertThat(bySlot(processed)).isEqualTo(bySlot(messageIds));
+        // All but the last slot are dispatched to the channel executor
+        assertThat(threads).contains(Thread.currentThread().getName())
+                .anyMatch(thread -> thread.startsWith("channel-messages:published-"));
+    }
+
+    @Test
+    void malformedEnvelopeProcessesPrecedingMessages() {
+        byte[] binary = MessageEnvelopeBenchmark.binary(List.of("binary-0", "binary-1", "binary-2", "binary-3"));
+        redisConsumerService.onMessage(getBinding(), Arrays.copyOf(binary, binary.length - 1));
+        redisConsumerService.onMessage(getBinding(),
+                "[{\"message_id\":\"json-0\"},{\"message_id\":\"json-1\"},1,{\"message_id\":\"json-2\"}]"
+                        .getBytes(StandardCharsets.UTF_8));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> redisCommands.xlen(S_KEY_PROCESSED) == 5);
+        assertThat(processed).containsExactlyInAnyOrder("binary-0", "binary-1", "binary-2", "json-0", "json-1");
+    }
+
+    private Map<Integer, List<String>> bySlot(List<String> messageIds) {
+        HashSlotManager slotManager = getBinding().getSlotManager();
+        return messageIds.stream().collect(Collectors.groupingBy(slotManager::getSlot, LinkedHashMap::new, Collectors.toList()));
+    }
+
+    private ChannelBinding getBinding() {
+        return channelRegistry.getDefaultBinding();
+    }
+}
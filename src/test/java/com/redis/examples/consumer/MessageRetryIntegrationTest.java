@@ -0,0 +1,95 @@
+package com.redis.examples.consumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.lettuce.core.Range;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.redis.examples.consumer.Constants.S_KEY_PROCESSED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Retries and dead-lettering against {@link InMemoryRedisServer}, using the local timer wheel scheduler.
+ */
+@SpringBootTest(properties = {
+        "heartbeat.interval=100",
+        "retry.max.attempts=2",
+        "retry.backoff.initial.ms=50",
+        "retry.timer.tick.ms=10",
+        "retry.poll.interval.ms=20"})
+class MessageRetryIntegrationTest extends InMemoryRedisIntegrationTest {
+
+    static final String S_KEY_DEADLETTER = "messages:deadletter";
+
+    @Autowired
+    RedisConsumerService redisConsumerService;
+
+    @Autowired
+    ChannelRegistry channelRegistry;
+
+    @Autowired
+    MessageRetryService retryService;
+
+    @Autowired
+    RedisCommands<String, String> redisCommands;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @SpyBean
+    MessageProcessor messageProcessor;
+
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> channelRegistry.getBindings().get(0).getSlotManager().getActiveSubscribers()
+                        .contains(redisConsumerService.getConsumerId()));
+        redisCommands.del(S_KEY_PROCESSED, S_KEY_DEADLETTER, "lock:messages:published:retry-once", "lock:messages:published:always-fails");
+
+        doAnswer(invocation -> {
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("Simulated failure");
+            }
+            return invocation.callRealMethod();
+        }).when(messageProcessor).process(any(Message.class), anyString());
+    }
+
+    @Test
+    void failedMessageSucceedsOnRetry() throws Exception {
+        double succeeded = retryService.getRetriesSucceeded();
+        failuresLeft.set(1);
+
+        redisConsumerService.onMessage(objectMapper.writeValueAsString(new Message("retry-once")), "messages:published");
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> retryService.getRetriesSucceeded() == succeeded + 1);
+        assertThat(redisCommands.xlen(S_KEY_PROCESSED)).isEqualTo(1);
+        assertThat(redisCommands.xlen(S_KEY_DEADLETTER)).isZero();
+    }
+
+    @Test
+    void exhaustedMessageMovedToDeadLetterStream() throws Exception {
+        failuresLeft.set(Integer.MAX_VALUE);
+
+        redisConsumerService.onMessage(objectMapper.writeValueAsString(new Message("always-fails")), "messages:published");
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> redisCommands.xlen(S_KEY_DEADLETTER) == 1);
+        assertThat(redisCommands.xrange(S_KEY_DEADLETTER, Range.create("-", "+")).get(0).getBody())
+                .containsEntry("message_id", "always-fails")
+                .containsEntry("attempts", "3");
+        assertThat(redisCommands.get("lock:messages:published:always-fails")).isEqualTo(ChannelBinding.LEASE_DEAD_LETTERED);
+        assertThat(redisCommands.xlen(S_KEY_PROCESSED)).isZero();
+    }
+}
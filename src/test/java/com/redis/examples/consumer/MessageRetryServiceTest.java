@@ -0,0 +1,18 @@
+package com.redis.examples.consumer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessageRetryServiceTest {
+
+    @Test
+    void backoffGrowsExponentiallyUpToMax() {
+        MessageRetryService retryService = new MessageRetryService(5, 100, 2, 1000);
+
+        assertThat(retryService.getBackoffMillis(1)).isEqualTo(100);
+        assertThat(retryService.getBackoffMillis(2)).isEqualTo(200);
+        assertThat(retryService.getBackoffMillis(4)).isEqualTo(800);
+        assertThat(retryService.getBackoffMillis(5)).isEqualTo(1000);
+    }
+}
@@ -0,0 +1,126 @@
+package com.redis.examples.consumer;
+
+import io.lettuce.core.api.sync.RedisCommands;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Bean;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Two channel bindings, a plain channel and a pattern, each with its own processor, executor and output stream.
+ */
+@SpringBootTest(properties = {
+        "heartbeat.interval=100",
+        "consumer.channels[0].name=orders",
+        "consumer.channels[0].output-stream=orders:processed",
+        "consumer.channels[0].executor-threads=2",
+        "consumer.channels[1].name=events:*",
+        "consumer.channels[1].pattern=true",
+        "consumer.channels[1].output-stream=events:processed",
+        "consumer.channels[1].processor=eventProcessor",
+        "consumer.channels[1].executor-threads=2",
+        "consumer.channels[1].slots-total=16"})
+class MultiChannelIntegrationTest extends InMemoryRedisIntegrationTest {
+
+    @TestConfiguration
+    static class ProcessorConfig {
+        @Bean
+        MessageProcessor eventProcessor() {
+            return new MessageProcessor();
+        }
+    }
+
+    @Autowired
+    RedisConsumerService redisConsumerService;
+
+    @Autowired
+    ChannelRegistry channelRegistry;
+
+    @Autowired
+    RedisCommands<String, String> redisCommands;
+
+    @SpyBean(name = "messageProcessor")
+    MessageProcessor messageProcessor;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void busyChannelDoesNotStarveOtherChannels() throws Exception {
+        await().atMost(Duration.ofSeconds(10)).until(() -> channelRegistry.getBindings().stream()
+                .allMatch(b -> b.getSlotManager().getActiveSubscribers().contains(redisConsumerService.getConsumerId())));
+        assertThat(channelRegistry.getBindings()).extracting(ChannelBinding::getName).containsExactly("orders", "events:*");
+
+        // Block all order processing threads
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await();
+            return invocation.callRealMethod();
+        }).when(messageProcessor).process(any(Message.class), anyString());
+
+        for (int i = 0; i < 5; i++) {
+            redisCommands.publish("orders", "{\"message_id\":\"order-" + i + "\"}");
+            redisCommands.publish("events:created", "{\"message_id\":\"event-" + i + "\"}");
+        }
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> redisCommands.xlen("events:processed") == 5);
+        assertThat(redisCommands.xlen("orders:processed")).isZero();
+
+        release.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() -> redisCommands.xlen("orders:processed") == 5);
+        assertThat(redisCommands.xlen("events:processed")).isEqualTo(5);
+    }
+
+    @Test
+    void pipelineEventsCarryChannel() throws Exception {
+        await().atMost(Duration.ofSeconds(10)).until(() -> channelRegistry.getBindings().stream()
+                .allMatch(b -> b.getSlotManager().getActiveSubscribers().contains(redisConsumerService.getConsumerId())));
+        long orders = redisCommands.xlen("orders:processed");
+        long events = redisCommands.xlen("events:processed");
+        Path file = tempDir.resolve("channels.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(ConsumerEvents.LeaseAttempt.class).withThreshold(Duration.ZERO);
+            recording.enable(ConsumerEvents.MessageProcessed.class).withThreshold(Duration.ZERO);
+            recording.enable(ConsumerEvents.StreamAppend.class).withThreshold(Duration.ZERO);
+            recording.start();
+            redisCommands.publish("orders", "{\"message_id\":\"recorded-order\"}");
+            redisCommands.publish("events:created", "{\"message_id\":\"recorded-event\"}");
+            await().atMost(Duration.ofSeconds(5)).until(() -> redisCommands.xlen("orders:processed") == orders + 1
+                    && redisCommands.xlen("events:processed") == events + 1);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Slots of the two channels are told apart by the channel of the event
+        Map<String, Set<String>> channelsByEvent = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().startsWith("com.redis.examples.consumer."))
+                .collect(Collectors.groupingBy(event -> event.getEventType().getName(),
+                        Collectors.mapping(event -> event.getString("channel"), Collectors.toSet())));
+        assertThat(channelsByEvent).containsKeys(
+                "com.redis.examples.consumer.LeaseAttempt",
+                "com.redis.examples.consumer.MessageProcessed",
+                "com.redis.examples.consumer.StreamAppend");
+        assertThat(channelsByEvent.values()).allSatisfy(channels ->
+                assertThat(channels).containsExactlyInAnyOrder("orders", "events:*"));
+    }
+}
@@ -0,0 +1,135 @@
+package com.redis.examples.consumer;
+
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static com.redis.examples.consumer.Constants.S_KEY_PROCESSED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Runs several consumer nodes in one JVM against {@link InMemoryRedisServer} and measures end-to-end throughput.
+ * <p>
+ * Load can be scaled with system properties {@code throughput.consumers}, {@code throughput.messages},
+ * {@code throughput.replicas} and {@code throughput.latency.micros}. With {@code throughput.logical} every node hosts
+ * that many logical consumers sharing its subscription. With {@code throughput.envelope.size} messages are published
+ * in envelopes of that many messages, encoded as {@code throughput.envelope.format} {@code json} or {@code binary}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MultiConsumerThroughputTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(MultiConsumerThroughputTest.class);
+
+    private static final String CHANNEL = "messages:published";
+    private static final int PUBLISH_BATCH_SIZE = 1000;
+
+    private final int consumers = Integer.getInteger("throughput.consumers", 3);
+    private final int messages = Integer.getInteger("throughput.messages", 5000);
+    private final int replicas = Integer.getInteger("throughput.replicas", 1);
+    private final long latencyMicros = Long.getLong("throughput.latency.micros", 0);
+    private final int logical = Integer.getInteger("throughput.logical", 1);
+    private final int envelopeSize = Integer.getInteger("throughput.envelope.size", 1);
+    private final MessageEnvelopeBenchmark.Format envelopeFormat = MessageEnvelopeBenchmark.Format.valueOf(
+            System.getProperty("throughput.envelope.format", "json").toUpperCase(Locale.ROOT));
+
+    private InMemoryRedisServer server;
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private RedisClient client;
+    private StatefulRedisConnection<String, byte[]> connection;
+
+    @BeforeAll
+    void startNodes() throws IOException {
+        server = new InMemoryRedisServer().start();
+        server.setLatency(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros)), Duration.ZERO);
+
+        for (int i = 0; i < consumers; i++) {
+            nodes.add(new SpringApplicationBuilder(ConsumerApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .bannerMode(Banner.Mode.OFF)
+                    .run("--spring.data.redis.port=" + server.getPort(),
+                            "--spring.redis.channel=" + CHANNEL,
+                            "--heartbeat.interval=200",
+                            "--hashslot.replica.count=" + replicas,
+                            "--consumer.logical.count=" + logical,
+                            "--metrics.report.period.seconds=1"));
+        }
+
+        client = RedisClient.create("redis://localhost:" + server.getPort());
+        connection = client.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE));
+
+        // Wait until every node sees the complete set of consumers, otherwise messages would be skipped
+        Set<String> consumerIds = new TreeSet<>();
+        nodes.forEach(node -> consumerIds.addAll(node.getBean(RedisConsumerService.class).getConsumerIds()));
+        await().atMost(Duration.ofSeconds(30)).until(() -> nodes.stream()
+                .flatMap(node -> node.getBean(ChannelRegistry.class).getBindings().stream())
+                .allMatch(binding -> binding.getSlotManager().getActiveSubscribers().equals(consumerIds)));
+    }
+
+    @AfterAll
+    void stopNodes() throws IOException {
+        nodes.forEach(ConfigurableApplicationContext::close);
+        if (connection != null) {
+            connection.close();
+            client.shutdown();
+        }
+        server.close();
+    }
+
+    @Test
+    void eachMessageProcessedOnce() {
+        RedisAsyncCommands<String, byte[]> async = connection.async();
+        connection.setAutoFlushCommands(false);
+
+        // Whole envelopes per pipelined batch
+        int batchSize = envelopeSize * Math.max(1, PUBLISH_BATCH_SIZE / envelopeSize);
+
+        long start = System.nanoTime();
+        for (int sent = 0; sent < messages; sent += batchSize) {
+            List<RedisFuture<Long>> batch = new ArrayList<>();
+            for (int i = sent; i < Math.min(sent + batchSize, messages); i += envelopeSize) {
+                List<String> messageIds = new ArrayList<>();
+                for (int j = i; j < Math.min(i + envelopeSize, messages); j++) {
+                    messageIds.add(UUID.randomUUID().toString());
+                }
+                batch.add(async.publish(CHANNEL, MessageEnvelopeBenchmark.encode(envelopeFormat, messageIds)));
+            }
+            connection.flushCommands();
+            LettuceFutures.awaitAll(Duration.ofSeconds(30), batch.toArray(new RedisFuture[0]));
+        }
+        connection.setAutoFlushCommands(true);
+
+        await().atMost(Duration.ofSeconds(60))
+                .pollInterval(Duration.ofMillis(50))
+                .until(() -> connection.sync().xlen(S_KEY_PROCESSED) >= messages);
+        long elapsedNanos = System.nanoTime() - start;
+
+        logger.info("{} consumers (logical {}, replicas {}, latency {}us, {} envelopes of {}) processed {} messages in {} ms, {} msgs/sec",
+                consumers, logical, replicas, latencyMicros, envelopeFormat, envelopeSize, messages, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                messages * 1_000_000_000L / elapsedNanos);
+
+        // Duplicates would show up as additional stream entries
+        await().during(Duration.ofMillis(500)).atMost(Duration.ofSeconds(2))
+                .until(() -> connection.sync().xlen(S_KEY_PROCESSED) == messages);
+    }
+}
@@ -0,0 +1,22 @@
+package com.redis.examples.consumer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Retries and dead-lettering using the Redis sorted set delay queue.
+ */
+@TestPropertySource(properties = "retry.scheduler=redis")
+class RedisRetrySchedulerIntegrationTest extends MessageRetryIntegrationTest {
+
+    @Autowired
+    RetryScheduler retryScheduler;
+
+    @Test
+    void redisSchedulerSelected() {
+        assertThat(retryScheduler).isInstanceOf(RedisRetryScheduler.class);
+    }
+}
@@ -0,0 +1,356 @@
+package com.redis.examples.consumer;
+
+import ch.qos.logback.classic.Level;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * Deterministic simulator driving {@link HashSlotManager} through scripted membership timelines.
+ * <p>
+ * Every consumer of a membership step owns a dedicated {@link HashSlotManager}, as it would on a separate node.
+ * After each membership change synthetic message IDs are distributed in two phases:
+ * <ul>
+ *     <li>transition - a {@code lagFraction} of the consumers still holds its previous slot map
+ *     (joining consumers hold an empty one), modelling heartbeat propagation delay</li>
+ *     <li>steady state - all consumers hold the updated slot map</li>
+ * </ul>
+ * Reported figures:
+ * <ul>
+ *     <li>load balance - max/mean of lease attempts per consumer in steady state</li>
+ *     <li>moved slots - fraction of slots whose consumers changed per membership change</li>
+ *     <li>moved primaries - fraction of slots whose first consumer changed per membership change, which moves leases
+ *     in standby replica mode even when the slot keeps its consumers</li>
+ *     <li>attempts per message, duplicate attempt rate (more than one attempt) and missed rate (no attempt)</li>
+ *     <li>{@link HashSlotManager#updateSlotMap} rebuild time</li>
+ * </ul>
+ * Run {@link #main} to compare {@code hashslot.slots.total} and {@code hashslot.replica.count} values.
+ */
+public class SlotAssignmentSimulator {
+
+    private final int totalSlots;
+    private final int replicaCount;
+    private final int messagesPerStep;
+    private final int transitionMessagesPerStep;
+    private final double lagFraction;
+    private final long seed;
+
+    public SlotAssignmentSimulator(int totalSlots, int replicaCount, int messagesPerStep,
+                                   int transitionMessagesPerStep, double lagFraction, long seed) {
+        this.totalSlots = totalSlots;
+        this.replicaCount = replicaCount;
+        this.messagesPerStep = messagesPerStep;
+        this.transitionMessagesPerStep = transitionMessagesPerStep;
+        this.lagFraction = lagFraction;
+        this.seed = seed;
+    }
+
+    public record Report(int totalSlots,
+                         int replicaCount,
+                         long messages,
+                         double maxMeanLoad,
+                         double movedSlotsMean,
+                         double movedSlotsMax,
+                         double movedPrimariesMean,
+                         double movedPrimariesMax,
+                         double attemptsPerMessage,
+                         double duplicateAttemptRate,
+                         double missedRate,
+                         double transitionDuplicateAttemptRate,
+                         double transitionMissedRate,
+                         double rebuildMicrosMean,
+                         double rebuildMicrosMax) {
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "slots=%6d replicas=%d messages=%9d max/mean=%.3f moved(mean/max)=%.3f/%.3f "
+                            + "primaries(mean/max)=%.3f/%.3f attempts/msg=%.3f "
+                            + "dup=%.4f missed=%.4f transition(dup/missed)=%.4f/%.4f rebuild(us mean/max)=%.1f/%.1f",
+                    totalSlots, replicaCount, messages, maxMeanLoad, movedSlotsMean, movedSlotsMax,
+                    movedPrimariesMean, movedPrimariesMax,
+                    attemptsPerMessage, duplicateAttemptRate, missedRate,
+                    transitionDuplicateAttemptRate, transitionMissedRate, rebuildMicrosMean, rebuildMicrosMax);
+        }
+    }
+
+    /**
+     * Runs the timeline, each element being the complete list of active consumers after a membership change.
+     */
+    public Report run(List<List<String>> timeline) {
+        // Keep slot map dumps out of the rebuild timings
+        ch.qos.logback.classic.Logger logger = (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(HashSlotManager.class);
+        Level level = logger.getLevel();
+        logger.setLevel(Level.INFO);
+        try {
+            return simulate(timeline);
+        } finally {
+            logger.setLevel(level);
+        }
+    }
+
+    private Report simulate(List<List<String>> timeline) {
+        Random random = new Random(seed);
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, HashSlotManager> nodes = new HashMap<>();
+        Map<Integer, Set<String>> previousAssignments = Collections.emptyMap();
+
+        long messages = 0;
+        double maxMeanLoadSum = 0;
+        int steadySteps = 0;
+        long attempts = 0;
+        long duplicates = 0;
+        long missed = 0;
+        long transitionMessages = 0;
+        long transitionDuplicates = 0;
+        long transitionMissed = 0;
+        double movedSum = 0;
+        double movedMax = 0;
+        double movedPrimariesSum = 0;
+        double movedPrimariesMax = 0;
+        int changes = 0;
+        long rebuildNanosSum = 0;
+        long rebuildNanosMax = 0;
+        long rebuilds = 0;
+
+        for (List<String> membership : timeline) {
+            List<String> members = new ArrayList<>(new TreeSet<>(membership));
+            nodes.keySet().retainAll(members);
+            for (String member : members) {
+                nodes.computeIfAbsent(member, m -> {
+                    HashSlotManager manager = new HashSlotManager(totalSlots, replicaCount);
+                    manager.objectMapper = objectMapper;
+                    return manager;
+                });
+            }
+
+            // Transition phase, lagging consumers still hold their previous view
+            if (!previousAssignments.isEmpty() && transitionMessagesPerStep > 0) {
+                List<String> updatedFirst = new ArrayList<>(members);
+                Collections.shuffle(updatedFirst, random);
+                int lagging = (int) Math.round(members.size() * lagFraction);
+                for (String member : updatedFirst.subList(lagging, updatedFirst.size())) {
+                    long rebuild = rebuild(nodes.get(member), members);
+                    rebuildNanosSum += rebuild;
+                    rebuildNanosMax = Math.max(rebuildNanosMax, rebuild);
+                    rebuilds++;
+                }
+                for (int i = 0; i < transitionMessagesPerStep; i++) {
+                    int count = attempts(nodes, nextMessageId(random), null);
+                    transitionMessages++;
+                    if (count > 1) {
+                        transitionDuplicates++;
+                    } else if (count == 0) {
+                        transitionMissed++;
+                    }
+                }
+            }
+
+            // Steady state, all consumers converged
+            for (String member : members) {
+                long rebuild = rebuild(nodes.get(member), members);
+                if (rebuild > 0) {
+                    rebuildNanosSum += rebuild;
+                    rebuildNanosMax = Math.max(rebuildNanosMax, rebuild);
+                    rebuilds++;
+                }
+            }
+
+            Map<Integer, Set<String>> assignments = members.isEmpty()
+                    ? Collections.emptyMap()
+                    : new HashMap<>(nodes.get(members.get(0)).getSlotAssignments());
+            if (!previousAssignments.isEmpty()) {
+                double moved = movedSlotsFraction(previousAssignments, assignments);
+                movedSum += moved;
+                movedMax = Math.max(movedMax, moved);
+                double movedPrimaries = movedPrimariesFraction(previousAssignments, assignments);
+                movedPrimariesSum += movedPrimaries;
+                movedPrimariesMax = Math.max(movedPrimariesMax, movedPrimaries);
+                changes++;
+            }
+            previousAssignments = assignments;
+
+            if (members.isEmpty()) {
+                continue;
+            }
+
+            Map<String, Long> load = new HashMap<>();
+            for (int i = 0; i < messagesPerStep; i++) {
+                int count = attempts(nodes, nextMessageId(random), load);
+                messages++;
+                attempts += count;
+                if (count > 1) {
+                    duplicates++;
+                } else if (count == 0) {
+                    missed++;
+                }
+            }
+            if (messagesPerStep > 0) {
+                double mean = (double) load.values().stream().mapToLong(Long::longValue).sum() / members.size();
+                long max = load.values().stream().mapToLong(Long::longValue).max().orElse(0);
+                maxMeanLoadSum += mean > 0 ? max / mean : 0;
+                steadySteps++;
+            }
+        }
+
+        return new Report(totalSlots, replicaCount, messages,
+                ratio(maxMeanLoadSum, steadySteps),
+                ratio(movedSum, changes), movedMax,
+                ratio(movedPrimariesSum, changes), movedPrimariesMax,
+                ratio(attempts, messages),
+                ratio(duplicates, messages),
+                ratio(missed, messages),
+                ratio(transitionDuplicates, transitionMessages),
+                ratio(transitionMissed, transitionMessages),
+                ratio(rebuildNanosSum, rebuilds) / 1000.0,
+                rebuildNanosMax / 1000.0);
+    }
+
+    /**
+     * Updates slot map of the given node and returns time spent in nanoseconds.
+     */
+    private static long rebuild(HashSlotManager manager, List<String> members) {
+        if (manager.getActiveSubscribers().equals(new TreeSet<>(members))) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        manager.updateSlotMap(members);
+        return System.nanoTime() - start;
+    }
+
+    private static int attempts(Map<String, HashSlotManager> nodes, String messageId, Map<String, Long> load) {
+        int count = 0;
+        for (Map.Entry<String, HashSlotManager> node : nodes.entrySet()) {
+            if (node.getValue().isProcessedBy(messageId, node.getKey())) {
+                count++;
+                if (load != null) {
+                    load.merge(node.getKey(), 1L, Long::sum);
+                }
+            }
+        }
+        return count;
+    }
+
+    private static double movedSlotsFraction(Map<Integer, Set<String>> before, Map<Integer, Set<String>> after) {
+        Set<Integer> slots = new HashSet<>(before.keySet());
+        slots.addAll(after.keySet());
+        if (slots.isEmpty()) {
+            return 0;
+        }
+        long moved = slots.stream()
+                .filter(slot -> !Objects.equals(before.get(slot), after.get(slot)))
+                .count();
+        return (double) moved / slots.size();
+    }
+
+    private static double movedPrimariesFraction(Map<Integer, Set<String>> before, Map<Integer, Set<String>> after) {
+        Set<Integer> slots = new HashSet<>(before.keySet());
+        slots.addAll(after.keySet());
+        if (slots.isEmpty()) {
+            return 0;
+        }
+        long moved = slots.stream()
+                .filter(slot -> !Objects.equals(primary(before.get(slot)), primary(after.get(slot))))
+                .count();
+        return (double) moved / slots.size();
+    }
+
+    private static String primary(Set<String> consumers) {
+        return consumers == null || consumers.isEmpty() ? null : consumers.iterator().next();
+    }
+
+    private static String nextMessageId(Random random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+
+    private static double ratio(double value, double total) {
+        return total > 0 ? value / total : 0;
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+    // Membership timelines
+    // -------------------------------------------------------------------------------------------------------------
+
+    public static String consumerId(int index) {
+        return String.format("Consumer-%03d", index);
+    }
+
+    private static List<String> consumers(int from, int to) {
+        List<String> consumers = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            consumers.add(consumerId(i));
+        }
+        return consumers;
+    }
+
+    /**
+     * Consumers join one at a time, growing from {@code from} to {@code to} members.
+     */
+    public static List<List<String>> scaleOut(int from, int to) {
+        List<List<String>> timeline = new ArrayList<>();
+        for (int size = from; size <= to; size++) {
+            timeline.add(consumers(0, size));
+        }
+        return timeline;
+    }
+
+    /**
+     * Consumers leave one at a time, shrinking from {@code from} to {@code to} members.
+     */
+    public static List<List<String>> scaleIn(int from, int to) {
+        List<List<String>> timeline = new ArrayList<>();
+        for (int size = from; size >= to; size--) {
+            timeline.add(consumers(0, size));
+        }
+        return timeline;
+    }
+
+    /**
+     * Last consumer of a stable group repeatedly drops out and rejoins.
+     */
+    public static List<List<String>> flapping(int size, int flaps) {
+        List<List<String>> timeline = new ArrayList<>();
+        timeline.add(consumers(0, size));
+        for (int i = 0; i < flaps; i++) {
+            timeline.add(consumers(0, size - 1));
+            timeline.add(consumers(0, size));
+        }
+        return timeline;
+    }
+
+    /**
+     * Every consumer is replaced, one at a time, by a consumer with a new ID.
+     */
+    public static List<List<String>> rollingRestart(int size) {
+        List<List<String>> timeline = new ArrayList<>();
+        timeline.add(consumers(0, size));
+        for (int i = 0; i < size; i++) {
+            timeline.add(consumers(i + 1, size + i + 1));
+        }
+        return timeline;
+    }
+
+    public static void main(String[] args) {
+        int messagesPerStep = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int consumers = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        double lagFraction = args.length > 2 ? Double.parseDouble(args[2]) : 0.5;
+
+        Map<String, List<List<String>>> scenarios = new LinkedHashMap<>();
+        scenarios.put("scale-out", scaleOut(1, consumers));
+        scenarios.put("scale-in", scaleIn(consumers, 1));
+        scenarios.put("flapping", flapping(consumers, 5));
+        scenarios.put("rolling-restart", rollingRestart(consumers));
+
+        for (Map.Entry<String, List<List<String>>> scenario : scenarios.entrySet()) {
+            System.out.println(scenario.getKey());
+            for (int totalSlots : new int[]{64, 256, 1024, 16384}) {
+                for (int replicaCount : new int[]{1, 2, 3}) {
+                    SlotAssignmentSimulator simulator = new SlotAssignmentSimulator(totalSlots, replicaCount,
+                            messagesPerStep, messagesPerStep / 10, lagFraction, 42);
+                    System.out.println("  " + simulator.run(scenario.getValue()));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.redis.examples.consumer;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SlotAssignmentSimulatorTest {
+
+    @Test
+    void steadyStateAttemptsMatchReplicaCount() {
+        SlotAssignmentSimulator.Report single = new SlotAssignmentSimulator(256, 1, 10_000, 0, 0, 1)
+                .run(SlotAssignmentSimulator.scaleOut(1, 4));
+        assertThat(single.attemptsPerMessage()).isEqualTo(1.0);
+        assertThat(single.duplicateAttemptRate()).isZero();
+        assertThat(single.missedRate()).isZero();
+        assertThat(single.movedSlotsMean()).isGreaterThan(0);
+        assertThat(single.movedPrimariesMean()).isEqualTo(single.movedSlotsMean());
+
+        SlotAssignmentSimulator.Report replicated = new SlotAssignmentSimulator(256, 2, 10_000, 0, 0, 1)
+                .run(SlotAssignmentSimulator.scaleOut(2, 4));
+        assertThat(replicated.attemptsPerMessage()).isEqualTo(2.0);
+        assertThat(replicated.duplicateAttemptRate()).isEqualTo(1.0);
+    }
+
+    @Test
+    void reportsPrimaryMovesOfReorderedReplicas() {
+        SlotAssignmentSimulator.Report report = new SlotAssignmentSimulator(16, 2, 0, 0, 0, 1)
+                .run(SlotAssignmentSimulator.scaleIn(3, 2));
+        assertThat(report.movedSlotsMean()).isEqualTo(10 / 16.0);
+        assertThat(report.movedPrimariesMean()).isEqualTo(11 / 16.0);
+    }
+
+    @Test
+    void lagCausesTransitionAnomalies() {
+        SlotAssignmentSimulator.Report report = new SlotAssignmentSimulator(256, 1, 1_000, 10_000, 0.5, 7)
+                .run(SlotAssignmentSimulator.flapping(4, 3));
+        assertThat(report.transitionDuplicateAttemptRate() + report.transitionMissedRate()).isGreaterThan(0);
+        assertThat(report.missedRate()).isZero();
+    }
+
+    @Test
+    void deterministicForSeed() {
+        SlotAssignmentSimulator.Report first = new SlotAssignmentSimulator(1024, 2, 5_000, 500, 0.5, 3)
+                .run(SlotAssignmentSimulator.rollingRestart(5));
+        SlotAssignmentSimulator.Report second = new SlotAssignmentSimulator(1024, 2, 5_000, 500, 0.5, 3)
+                .run(SlotAssignmentSimulator.rollingRestart(5));
+
+        assertThat(second.maxMeanLoad()).isEqualTo(first.maxMeanLoad());
+        assertThat(second.movedSlotsMean()).isEqualTo(first.movedSlotsMean());
+        assertThat(second.transitionMissedRate()).isEqualTo(first.transitionMissedRate());
+        assertThat(first.maxMeanLoad()).isCloseTo(1.0, within(0.2));
+    }
+
+    @Test
+    void restoresLogLevel() {
+        Logger logger = (Logger) LoggerFactory.getLogger(HashSlotManager.class);
+        Level level = logger.getLevel();
+        try {
+            logger.setLevel(Level.DEBUG);
+            new SlotAssignmentSimulator(64, 1, 100, 0, 0, 1).run(SlotAssignmentSimulator.scaleOut(1, 2));
+            assertThat(logger.getLevel()).isEqualTo(Level.DEBUG);
+        } finally {
+            logger.setLevel(level);
+        }
+    }
+}
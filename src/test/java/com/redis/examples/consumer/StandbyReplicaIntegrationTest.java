@@ -0,0 +1,151 @@
+package com.redis.examples.consumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.redis.examples.consumer.Constants.S_KEY_PROCESSED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Standby replica mode against {@link InMemoryRedisServer}, with a second consumer which only sends heartbeats.
+ */
+@SpringBootTest(properties = {
+        "heartbeat.interval=100",
+        "hashslot.replica.count=2",
+        "hashslot.replica.mode=standby",
+        "hashslot.standby.takeover.ms=300"})
+class StandbyReplicaIntegrationTest extends InMemoryRedisIntegrationTest {
+
+    static final String PEER = "Consumer-peer";
+
+    @Autowired
+    RedisConsumerService redisConsumerService;
+
+    @Autowired
+    ChannelRegistry channelRegistry;
+
+    @Autowired
+    RedisCommands<String, String> redisCommands;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    StandbyTakeoverService standbyService;
+
+    private final List<String> leaseWrites = new CopyOnWriteArrayList<>();
+
+    private final List<String> leaseReads = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        redisCommands.set(HeartbeatService.getHeartbeatKey(PEER), "alive", SetArgs.Builder.ex(60));
+        if (!redisCommands.lrange("consumer:ids", 0, -1).contains(PEER)) {
+            redisCommands.rpush("consumer:ids", PEER);
+        }
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> getSlotManager().getActiveSubscribers()
+                        .containsAll(List.of(PEER, redisConsumerService.getConsumerId())));
+        redisCommands.del(S_KEY_PROCESSED);
+
+        server.setCommandListener(command -> {
+            if (command.get(0).matches("P?SET(EX)?") && command.get(1).startsWith("lock:")) {
+                leaseWrites.add(command.get(1));
+            } else if (command.get(0).equals("GET") && command.get(1).startsWith("lock:")) {
+                leaseReads.add(command.get(1));
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.setCommandListener(null);
+        // Messages still watched would be processed during the next test
+        await().atMost(Duration.ofSeconds(5)).until(() -> standbyService.getPending() == 0);
+    }
+
+    @Test
+    void primaryLeasesWithoutStandbyContention() throws Exception {
+        String ownId = messageIdWithPrimary(redisConsumerService.getConsumerId(), "own");
+        String peerId = messageIdWithPrimary(PEER, "peer");
+        // The peer leased its message
+        redisCommands.set(lockKey(peerId), PEER, SetArgs.Builder.ex(60));
+        leaseWrites.clear();
+
+        send(ownId);
+        send(peerId);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> redisCommands.xlen(S_KEY_PROCESSED) == 1);
+        // The standby read the lease of the live peer once and stopped watching it
+        await().atMost(Duration.ofSeconds(5)).until(() -> leaseReads.contains(lockKey(peerId)));
+        await().atMost(Duration.ofSeconds(5)).until(() -> standbyService.getPending() == 0);
+        assertThat(leaseReads).containsOnlyOnce(lockKey(peerId));
+        assertThat(redisCommands.xlen(S_KEY_PROCESSED)).isEqualTo(1);
+        assertThat(redisCommands.get(lockKey(peerId))).isEqualTo(PEER);
+        // A single lease write for its own message
+        assertThat(leaseWrites).containsExactly(lockKey(ownId));
+        assertThat(redisCommands.get(lockKey(ownId))).isEqualTo(redisConsumerService.getConsumerId());
+    }
+
+    @Test
+    void standbyTakesOverMessageNotLeasedByPrimary() throws Exception {
+        String peerId = messageIdWithPrimary(PEER, "missed");
+        long sent = System.currentTimeMillis();
+
+        send(peerId);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> redisCommands.xlen(S_KEY_PROCESSED) == 1);
+        assertThat(System.currentTimeMillis() - sent).isGreaterThanOrEqualTo(300);
+        assertThat(redisCommands.get(lockKey(peerId))).isEqualTo(redisConsumerService.getConsumerId());
+        assertThat(leaseWrites).containsExactly(lockKey(peerId));
+    }
+
+    @Test
+    void standbyTakesOverMessageOfPrimaryDiedWhileProcessing() throws Exception {
+        String peerId = messageIdWithPrimary(PEER, "died");
+        // The peer leased its message
+        redisCommands.set(lockKey(peerId), PEER, SetArgs.Builder.ex(60));
+        long sent = System.currentTimeMillis();
+
+        send(peerId);
+        // and dies before finishing it, its lease is taken over long before it expires
+        redisCommands.del(HeartbeatService.getHeartbeatKey(PEER));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> redisCommands.xlen(S_KEY_PROCESSED) == 1);
+        assertThat(System.currentTimeMillis() - sent).isGreaterThanOrEqualTo(300);
+        assertThat(redisCommands.get(lockKey(peerId))).isEqualTo(redisConsumerService.getConsumerId());
+        assertThat(standbyService.getTakeovers()).isPositive();
+    }
+
+    private void send(String messageId) throws Exception {
+        redisConsumerService.onMessage(objectMapper.writeValueAsString(new Message(messageId)), "messages:published");
+    }
+
+    private String messageIdWithPrimary(String primary, String prefix) {
+        for (int i = 0; ; i++) {
+            String messageId = prefix + "-" + System.nanoTime() + "-" + i;
+            if (getSlotManager().getReplicas(messageId).get(0).equals(primary)) {
+                return messageId;
+            }
+        }
+    }
+
+    private String lockKey(String messageId) {
+        return channelRegistry.getDefaultBinding().getLockKey(messageId);
+    }
+
+    private HashSlotManager getSlotManager() {
+        return channelRegistry.getDefaultBinding().getSlotManager();
+    }
+}